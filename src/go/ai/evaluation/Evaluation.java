@@ -2,6 +2,7 @@ package go.ai.evaluation;
 
 import go.model.game.Game;
 import go.model.game.Move;
+import go.model.game.PointSet;
 import go.model.interfaces.Color;
 
 public class Evaluation implements Runnable {
@@ -27,10 +28,9 @@ public class Evaluation implements Runnable {
         if (isMaximizingPlayer) {
             double maxEval = Double.NEGATIVE_INFINITY;
             for (Move move : game.getValidMovesSmart()) {
-                Game newGame = game.deepCopy();
-                newGame.doMove(move);
-
-                double eval = evaluate(newGame, depth - 1, false, alpha, beta);
+                game.doMove(move);
+                double eval = evaluate(game, depth - 1, false, alpha, beta);
+                game.undoMove();
                 maxEval = Math.max(maxEval, eval);
 
                 if (beta < eval) {
@@ -43,10 +43,9 @@ public class Evaluation implements Runnable {
         } else {
             double minEval = Double.POSITIVE_INFINITY;
             for (Move move : game.getValidMovesSmart()) {
-                Game newGame = game.deepCopy();
-                newGame.doMove(move);
-
-                double eval = evaluate(newGame, depth - 1, true, alpha, beta);
+                game.doMove(move);
+                double eval = evaluate(game, depth - 1, true, alpha, beta);
+                game.undoMove();
                 minEval = Math.min(minEval, eval);
 
                 if (beta < eval) {
@@ -84,7 +83,8 @@ public class Evaluation implements Runnable {
 
     public double evaluateLiberties(Game game, Color color) {
         double libertyScore = 0;
-        for (int i : game.getBoard().getFields(color)) {
+        PointSet stones = game.getBoard().getFieldPoints(color);
+        for (int i = stones.first(); i != -1; i = stones.next(i)) {
             int liberties = game.getBoard().numOfLiberties(i);
             if (liberties == 1) {
                 libertyScore -= 100; // Heavily penalize stones in atari
@@ -97,7 +97,9 @@ public class Evaluation implements Runnable {
 
     public int countPotentialCaptures(Game game, Color color) {
         int potentialCaptures = 0;
-        for (int opponentStone : game.getBoard().getFields(color.other())) {
+        PointSet opponentStones = game.getBoard().getFieldPoints(color.other());
+        for (int opponentStone = opponentStones.first(); opponentStone != -1;
+                opponentStone = opponentStones.next(opponentStone)) {
             if (game.getBoard().numOfLiberties(opponentStone) == 1) {
                 potentialCaptures++;
             }
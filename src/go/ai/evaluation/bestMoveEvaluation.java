@@ -28,10 +28,9 @@ public class bestMoveEvaluation extends Evaluation{
         if (isMaximizingPlayer) {
             double maxEval = Double.NEGATIVE_INFINITY;
             for (Move move : game.getValidMovesSmart()) {
-                Game newGame = game.deepCopy();
-                newGame.doMove(move);
-
-                double eval = super.evaluate(newGame, depth - 1, false, alpha, beta);
+                game.doMove(move);
+                double eval = super.evaluate(game, depth - 1, false, alpha, beta);
+                game.undoMove();
 
                 if (maxEval < eval) {
                     maxEval = eval;
@@ -45,10 +44,9 @@ public class bestMoveEvaluation extends Evaluation{
         } else {
             double minEval = Double.POSITIVE_INFINITY;
             for (Move move : game.getValidMovesSmart()) {
-                Game newGame = game.deepCopy();
-                newGame.doMove(move);
-
-                double eval = super.evaluate(newGame, depth - 1, true, alpha, beta);
+                game.doMove(move);
+                double eval = super.evaluate(game, depth - 1, true, alpha, beta);
+                game.undoMove();
 
                 if (minEval > eval) {
                     minEval = eval;
@@ -20,6 +20,13 @@ public interface Strategy {
     //@pure
     Move determineMove(Game game);
 
+    /**
+     * Stops everything the strategy still does in the background,
+     * called when the game is over or the strategy is replaced.
+     */
+    default void stop() {
+    }
+
     /**
      * Method to get the name of the strategy.
      * @return the name of the strategy
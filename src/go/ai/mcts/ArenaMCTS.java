@@ -0,0 +1,224 @@
+package go.ai.mcts;
+
+import go.ai.interfaces.Strategy;
+import go.ai.playout.PlayoutEngine;
+import go.model.game.Board;
+import go.model.game.Game;
+import go.model.game.Move;
+import go.model.interfaces.Color;
+import go.util.Rng;
+
+/**
+ * Single threaded MCTS that keeps its tree in a NodeArena instead of Node objects.
+ * It selects, expands and scores nodes the same way as MCTS, but a node stores no board:
+ * every iteration copies the root position to a scratch board and plays the moves of the selected path on it.
+ * A node takes NodeArena.BYTES_PER_NODE bytes instead of a Node with its own Board and child list,
+ * so the same memory holds a far larger tree and selection walks through neighboring array entries.
+ */
+public class ArenaMCTS implements Strategy {
+    /** Time per search in milliseconds. */
+    private final long timeLimit;
+    private final PlayoutEngine playoutEngine;
+    private final Rng random;
+    private final NodeArena arena = new NodeArena();
+    /** The board the path of the current iteration is played on. */
+    private Board scratch;
+    /** The moves of the node being expanded. */
+    private int[] moves = new int[0];
+    /** Number of playouts of the last search. */
+    private long playouts;
+
+    /**
+     * Creates an arena MCTS that searches for TIME_LIMIT milliseconds.
+     */
+    public ArenaMCTS() {
+        this(MCTS.TIME_LIMIT);
+    }
+
+    /**
+     * Creates an arena MCTS.
+     * @param timeLimit the time per search in milliseconds
+     * @throws IllegalArgumentException if timeLimit is not positive
+     */
+    //@requires timeLimit > 0;
+    public ArenaMCTS(long timeLimit) {
+        this(timeLimit, new Rng());
+    }
+
+    /**
+     * Creates an arena MCTS whose playouts and tie breaks draw from the given random generator.
+     * @param timeLimit the time per search in milliseconds
+     * @param random the random generator to use
+     * @throws IllegalArgumentException if timeLimit is not positive
+     */
+    //@requires timeLimit > 0;
+    public ArenaMCTS(long timeLimit, Rng random) {
+        if (timeLimit < 1) {
+            throw new IllegalArgumentException("MCTS needs at least one millisecond, got " + timeLimit + "ms");
+        }
+        this.timeLimit = timeLimit;
+        this.random = random;
+        this.playoutEngine = new PlayoutEngine(random);
+    }
+
+    /**
+     * determines the best Move for a game.
+     * @param game the game to move in
+     * @return the move with the highest score
+     */
+    @Override
+    public Move determineMove(Game game) {
+        System.out.println("MCTS simulating");
+        Move move = searchMove(game.getBoard());
+        System.out.printf("MCTS played %d playouts with %d nodes in %d bytes, %.0f playouts/s%n",
+                playouts, arena.size(), arena.getNumOfBytes(), playouts * 1000.0 / timeLimit);
+        return move;
+    }
+
+    /**
+     * Searches the position and returns the best move, without printing anything.
+     * @param board the position to search
+     * @return the move to the root child with the highest score
+     */
+    //@requires !board.isGameOver();
+    public Move searchMove(Board board) {
+        search(board);
+        return new Move(arena.getMove(getWinnerNode()), board.getTurn(), board.getDim());
+    }
+
+    /**
+     * Grows a new tree of the position until the time limit is reached.
+     * @param board the position to search, it is not changed
+     * @return the arena with the tree, it is reused by the next search
+     */
+    public NodeArena search(Board board) {
+        arena.clear();
+        playouts = 0;
+        if (scratch == null || scratch.getDim() != board.getDim()) {
+            scratch = board.deepCopy();
+            moves = new int[board.getNumOfFields()];
+        }
+        // the scores count the wins of the player to move at the root, on every level of the tree
+        Color player = board.getTurn();
+        int root = arena.getRoot();
+
+        scratch.copyFrom(board);
+        expand(root, scratch);
+        long end = System.currentTimeMillis() + timeLimit;
+        while (System.currentTimeMillis() < end) {
+            scratch.copyFrom(board);
+            int node = select(root, scratch);
+            if (!arena.isExpanded(node)) {
+                expand(node, scratch);
+            }
+
+            Color winner = playoutEngine.playout(scratch);
+            playouts++;
+            int score = winner == player ? MCTS.WIN_SCORE : 0;
+            for (int n = node; n != NodeArena.NONE; n = arena.getParent(n)) {
+                arena.update(n, 1, score);
+            }
+        }
+        return arena;
+    }
+
+    /**
+     * Walks down from a node to a leaf, playing the move of every chosen node on the board.
+     * Nodes not yet visited are chosen first, otherwise the child with the highest UCT value.
+     * @param node the node to start from
+     * @param board the position of the node, it ends at the position of the returned node
+     * @return the chosen leaf
+     */
+    private int select(int node, Board board) {
+        while (arena.getNumOfChildren(node) > 0) {
+            int first = arena.getFirstChild(node);
+            int last = first + arena.getNumOfChildren(node);
+            double logVisits = Math.log(arena.getVisits(node));
+            double uctIndex = Double.MIN_VALUE;
+            int chosen = first;
+            for (int child = first; child < last; child++) {
+                int visits = arena.getVisits(child);
+                if (visits == 0) {
+                    chosen = child;
+                    break;
+                }
+                double uct = (double) arena.getScore(child) / visits + MCTS.UCT_CONSTANT * Math.sqrt(logVisits / visits);
+                if (uct > uctIndex || (uct == uctIndex && random.nextBoolean())) {
+                    uctIndex = uct;
+                    chosen = child;
+                }
+            }
+            board.setField(arena.getMove(chosen), board.getTurn());
+            node = chosen;
+            if (arena.getVisits(node) == 0) {
+                break;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Adds the children of a node, like MCTS.addChildNodes:
+     * only the capture if the player to move can capture, otherwise every empty field.
+     * A finished position gets no children.
+     * @param node the node to expand
+     * @param board the position of the node
+     */
+    private void expand(int node, Board board) {
+        int count = 0;
+        if (!board.isGameOver()) {
+            int capture = board.findAtariLiberty(board.getTurn().other());
+            if (capture != -1) {
+                moves[count++] = capture;
+            } else {
+                for (int i = 0; i < board.getNumOfFields(); i++) {
+                    if (board.getColor(i) == Color.EMPTY) {
+                        moves[count++] = i;
+                    }
+                }
+            }
+        }
+        arena.addChildren(node, moves, count);
+    }
+
+    /**
+     * Returns the root child with the highest score.
+     * @return the id of the best child
+     */
+    //@requires arena.getNumOfChildren(arena.getRoot()) > 0;
+    //@pure
+    private int getWinnerNode() {
+        int root = arena.getRoot();
+        int first = arena.getFirstChild(root);
+        int best = first;
+        for (int child = first + 1; child < first + arena.getNumOfChildren(root); child++) {
+            if (arena.getScore(child) > arena.getScore(best)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of playouts of the last search.
+     * @return the number of playouts
+     */
+    //@pure
+    public long getNumOfPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the number of nodes of the tree of the last search.
+     * @return the number of nodes including the root
+     */
+    //@pure
+    public long getNumOfNodes() {
+        return arena.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ArenaMCTS";
+    }
+}
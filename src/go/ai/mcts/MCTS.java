@@ -1,29 +1,184 @@
 package go.ai.mcts;
 
 import go.ai.interfaces.Strategy;
-import go.ai.strategy.SimpleStrategy;
+import go.ai.playout.PatternTable;
+import go.ai.playout.PlayoutEngine;
 import go.model.game.Board;
 import go.model.game.Game;
 import go.model.game.Move;
+import go.model.game.PointSet;
 import go.model.interfaces.Color;
-import go.model.player.ComputerPlayer;
+import go.util.Rng;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class MCTS implements Strategy {
 
     //lower value = more exploration
     //higher value = more exploitation
     //standard is 10
+    //the default, a SearchConfig can set another
     static final int WIN_SCORE = 10;
 
-
+    //default time per search in milliseconds
     static final int TIME_LIMIT = 5000;
 
     //higher value = more exploration
     //lower value = more exploitation
     //standard is 1.41
+    //the default, a SearchConfig can set another
     static final double UCT_CONSTANT = 6;
 
+    //a RAVE equivalence that works well on small boards, RAVE is off unless a SearchConfig sets one
+    static final int RAVE_EQUIVALENCE = 1000;
+
+    //with progressive widening a node may have 1 + WIDENING_FACTOR * visits^WIDENING_EXPONENT children
+    static final double WIDENING_FACTOR = 2;
+    static final double WIDENING_EXPONENT = 0.5;
+
+    //a transposition capacity that holds the positions of a search of a few seconds, positions are not shared unless
+    //a SearchConfig sets one
+    static final int TRANSPOSITION_CAPACITY = 1 << 16;
+
+    /** The settings and limits of the searches. */
+    private final SearchConfig config;
+    /** Draws the seeds of the workers and breaks ties between children with the same UCT value. */
+    private final Rng random;
+    private final PlayoutEngine playoutEngine;
+    /** The limits of the running search, shared by all its workers. */
+    private SearchBudget budget;
+    /** Keeps the trees of the running search within the node budget, null if it has none. */
+    private TreePruner pruner;
+    /** Number of playouts of the last search over all trees. */
+    private long playouts;
+    /** The limit that ended the last search. */
+    private StopReason stopReason;
+    /** Duration of the last search in milliseconds. */
+    private long elapsed;
+    /** Time the last search left of its time limit because its move was decided, in milliseconds. */
+    private long savedTime;
+    /** The roots of the trees of the last search, one per tree, kept to continue them in the next search. */
+    private List<Node> trees = new ArrayList<>();
+    /** The transposition tables of the trees in the same order, null entries if positions are not shared. */
+    private List<TranspositionTable> tables = new ArrayList<>();
+    /** The transposition table of the tree this worker grows, null if positions are not shared. */
+    private TranspositionTable table;
+    /** The nodes chosen by the last selection of this worker, from its root down to the selected node. */
+    private final List<Node> path = new ArrayList<>();
+    /** Number of visits the trees of the last search started with, taken over from the search before. */
+    private long reusedVisits;
+    /** The daemon threads searching on the time of the opponent, empty when not pondering. */
+    private List<Thread> ponderThreads = new ArrayList<>();
+    private List<MCTS> ponderWorkers = new ArrayList<>();
+    /** Number of playouts of the last pondering. */
+    private long ponderPlayouts;
+
+    /**
+     * Creates a single threaded MCTS that searches for TIME_LIMIT milliseconds.
+     */
+    public MCTS() {
+        this(1);
+    }
+
+    /**
+     * Creates an MCTS that searches one tree per thread for TIME_LIMIT milliseconds.
+     * @param threads the number of threads
+     */
+    public MCTS(int threads) {
+        this(threads, TIME_LIMIT);
+    }
+
+    /**
+     * Creates an MCTS that searches one tree per thread.
+     * With more than one thread the trees are searched independently (root parallelization)
+     * and the statistics of their root children are merged before the move is chosen.
+     * @param threads the number of threads
+     * @param timeLimit the time per search in milliseconds
+     * @throws IllegalArgumentException if threads or timeLimit is not positive
+     */
+    //@requires threads > 0 && timeLimit > 0;
+    public MCTS(int threads, long timeLimit) {
+        this(threads, timeLimit, Parallelism.ROOT);
+    }
+
+    /**
+     * Creates an MCTS that searches with the given kind of parallelism.
+     * @param threads the number of threads
+     * @param timeLimit the time per search in milliseconds
+     * @param parallelism whether the threads search their own trees or one shared tree
+     * @throws IllegalArgumentException if threads or timeLimit is not positive
+     */
+    //@requires threads > 0 && timeLimit > 0;
+    public MCTS(int threads, long timeLimit, Parallelism parallelism) {
+        this(threads, timeLimit, parallelism, threads);
+    }
+
+    /**
+     * Creates an MCTS that searches with the given kind of parallelism.
+     * @param threads the number of threads
+     * @param timeLimit the time per search in milliseconds
+     * @param parallelism whether the threads search their own trees, one shared tree or the playouts of one leaf
+     * @param batchSize the number of playouts per selected leaf with leaf parallelism
+     * @throws IllegalArgumentException if threads, timeLimit or batchSize is not positive
+     */
+    //@requires threads > 0 && timeLimit > 0 && batchSize > 0;
+    public MCTS(int threads, long timeLimit, Parallelism parallelism, int batchSize) {
+        this(threads, timeLimit, parallelism, batchSize, false);
+    }
+
+    /**
+     * Creates an MCTS that searches with the given kind of parallelism, optionally with progressive widening.
+     * Without widening every move of a node becomes a child on its first selection, in field order.
+     * With widening the moves are ordered by a prior and a node with n visits has at most
+     * 1 + WIDENING_FACTOR * n^WIDENING_EXPONENT children.
+     * @param threads the number of threads
+     * @param timeLimit the time per search in milliseconds
+     * @param parallelism whether the threads search their own trees, one shared tree or the playouts of one leaf
+     * @param batchSize the number of playouts per selected leaf with leaf parallelism
+     * @param progressiveWidening whether the number of children grows with the visits
+     * @throws IllegalArgumentException if threads, timeLimit or batchSize is not positive
+     */
+    //@requires threads > 0 && timeLimit > 0 && batchSize > 0;
+    public MCTS(int threads, long timeLimit, Parallelism parallelism, int batchSize, boolean progressiveWidening) {
+        this(SearchConfig.builder().threads(threads).timeLimit(timeLimit).parallelism(parallelism)
+                .batchSize(batchSize).progressiveWidening(progressiveWidening).build());
+    }
+
+    /**
+     * Creates an MCTS with the given settings.
+     * A search stops at the first limit of the config it reaches, getStopReason tells which one.
+     * @param config the settings of the searches
+     */
+    public MCTS(SearchConfig config) {
+        this(config, config.createRng());
+    }
+
+    /**
+     * Creates an MCTS that draws from the given random generator instead of one made from the seed of the config.
+     * Every thread of a search gets its own generator, split from this one.
+     * @param config the settings of the searches
+     * @param random the random generator of the playouts and tie breaks, only used by the calling thread
+     */
+    public MCTS(SearchConfig config, Rng random) {
+        this.config = config;
+        this.random = random;
+        this.playoutEngine = createEngine(random);
+    }
+
+    /**
+     * Creates a playout engine with the playout policy of the config.
+     * @param random the random generator of the engine
+     * @return the new engine
+     */
+    private PlayoutEngine createEngine(Rng random) {
+        return new PlayoutEngine(random, config.isPlayoutPatterns() ? PatternTable.DEFAULT : null);
+    }
+
     public static void main(String[] args) {
         Board board = new Board();
 
@@ -69,19 +224,620 @@ public class MCTS implements Strategy {
     @Override
     public Move determineMove(Game game) {
         System.out.println("MCTS simulating");
-        MCTS mcts = new MCTS();
+        Move move = searchMove(game.getBoard());
+        System.out.printf("MCTS played %d playouts on %d threads in %dms, %.0f playouts/s, reused %d visits "
+                        + "(%d pondered), stopped by %s, saved %dms%n", playouts, config.getThreads(), elapsed,
+                playouts * 1000.0 / Math.max(1, elapsed), reusedVisits, ponderPlayouts, stopReason, savedTime);
+        if (config.getTranspositionCapacity() > 0) {
+            System.out.printf("MCTS has %d nodes, %d transpositions and %d evicted positions%n",
+                    getNumOfNodes(), getNumOfTranspositions(), getNumOfEvictions());
+        }
+        if (config.getNodeBudget() != SearchConfig.NO_LIMIT) {
+            System.out.printf("MCTS has %d nodes in about %d KB, pruned %d nodes in %d prune events%n",
+                    getNumOfNodes(), getNumOfBytes() / 1024, getNumOfPrunedNodes(), getNumOfPruneEvents());
+        }
+        if (config.isPondering()) {
+            startPondering(move);
+        }
+        return move;
+    }
+
+    /**
+     * Searches the position on all threads and returns the best move, without printing anything.
+     * If the position was reached in the tree of the previous search, at most one own move and one
+     * move of the opponent deep, that subtree is searched further with its statistics intact.
+     * @param board the position to search
+     * @return the move with the highest merged score
+     */
+    //@requires !board.isGameOver();
+    public Move searchMove(Board board) {
+        Node root = switch (config.getParallelism()) {
+            case ROOT -> searchRootParallel(board);
+            case TREE -> searchTreeParallel(board);
+            case LEAF -> searchLeafParallel(board);
+        };
+        Node node = getWinnerNode(root);
+        // a limit can end the search before the first playout, then the first move of the root is played
+        int field = node == null ? root.untried[0] : node.move;
+        return new Move(field, board.getTurn(), board.getDim());
+    }
+
+    /**
+     * Searches one independent tree per thread, each with its own seeded playouts,
+     * and merges the statistics of the root children by move.
+     * A single thread searches on the calling thread.
+     * @param board the position to search
+     * @return a root whose children hold the summed scores and visits of all trees
+     */
+    public Node searchRootParallel(Board board) {
+        List<Node> roots = reuseTrees(board, config.getThreads());
+        startSearch(roots, tables);
+        List<MCTS> workers = createWorkers();
+        List<Callable<Node>> tasks = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            MCTS worker = workers.get(i);
+            Node root = roots.get(i);
+            worker.table = tables.get(i);
+            tasks.add(() -> worker.grow(root));
+        }
+        run(tasks);
+        countPlayouts(workers);
+        finishSearch();
+        return merge(board, roots);
+    }
+
+    /**
+     * Searches one shared tree with all threads, each with its own seeded playouts.
+     * Expansion of a node is claimed by one thread and the statistics are updated atomically,
+     * virtual loss makes threads that descend at the same time prefer different branches.
+     * @param board the position to search
+     * @return the root of the shared tree
+     */
+    public Node searchTreeParallel(Board board) {
+        List<Node> roots = reuseTrees(board, 1);
+        Node root = roots.get(0);
+        startSearch(roots, tables);
+        List<MCTS> workers = createWorkers();
+        List<Callable<Node>> tasks = new ArrayList<>();
+        for (MCTS worker : workers) {
+            worker.table = tables.get(0);
+            tasks.add(() -> worker.grow(root));
+        }
+        run(tasks);
+        countPlayouts(workers);
+        finishSearch();
+        return root;
+    }
+
+    /**
+     * Searches one tree on the calling thread, running batchSize playouts of every selected leaf
+     * in parallel on a work stealing pool. The results of a batch are backpropagated together,
+     * so only the calling thread touches the tree.
+     * @param board the position to search
+     * @return the root of the tree
+     */
+    public Node searchLeafParallel(Board board) {
+        List<PlayoutEngine> engines = new ArrayList<>();
+        for (int i = 0; i < config.getBatchSize(); i++) {
+            engines.add(createEngine(random.split()));
+        }
+
+        List<Node> roots = reuseTrees(board, 1);
+        Node root = roots.get(0);
+        table = tables.get(0);
+        startSearch(roots, tables);
+        ForkJoinPool pool = new ForkJoinPool(config.getThreads());
+        try {
+            addChildNodes(root);
+            // near the playout limit the last batch is smaller
+            for (int size = budget.reserve(engines.size()); size > 0; size = budget.reserve(engines.size())) {
+                if (pruner != null) {
+                    pruner.enter();
+                }
+                try {
+                    Node leaf = getPromisingNode(root);
+                    addChildNodes(leaf);
+                    if (config.isSolver()) {
+                        prove();
+                    }
+                    simulateBatch(leaf, pool, engines.subList(0, size));
+                    removeVirtualLoss();
+                } finally {
+                    if (pruner != null) {
+                        pruner.exit();
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        playouts = 0;
+        for (PlayoutEngine engine : engines) {
+            playouts += engine.getNumOfPlayouts();
+        }
+        finishSearch();
+        return root;
+    }
+
+    /**
+     * Picks the roots for a search of the given position and keeps them for the next search.
+     * Pondering is stopped first, its statistics are part of the trees.
+     * A tree of the previous search is continued from the node of the position if it has one,
+     * with that node detached so the rest of the old tree can be released. Otherwise a new tree is started.
+     * Every tree gets a new transposition table if positions are shared.
+     * @param board the position to search
+     * @param count the number of trees
+     * @return the roots of the trees
+     */
+    //@ensures \result.size() == count;
+    private List<Node> reuseTrees(Board board, int count) {
+        stopPondering();
+        List<Node> roots = new ArrayList<>();
+        List<TranspositionTable> newTables = new ArrayList<>();
+        reusedVisits = 0;
+        for (int i = 0; i < count; i++) {
+            Node root = i < trees.size() ? findPosition(trees.get(i), board, 2) : null;
+            if (root == null) {
+                root = new Node(board.deepCopy());
+            } else {
+                root.parent = null;
+                reusedVisits += root.visitCount;
+            }
+            roots.add(root);
+            newTables.add(createTable(root));
+        }
+        trees = roots;
+        tables = newTables;
+        return roots;
+    }
+
+    /**
+     * Creates the transposition table of a tree and fills it with the nodes the tree already has.
+     * A node of a reused tree whose parent is not below the new root gets the first node of the new tree
+     * that reaches it as its parent, so it does not hold on to the rest of the old tree.
+     * @param root the root of the tree
+     * @return the table, null if positions are not shared
+     */
+    private TranspositionTable createTable(Node root) {
+        if (config.getTranspositionCapacity() == 0) {
+            return null;
+        }
+        TranspositionTable newTable = new TranspositionTable(config.getTranspositionCapacity());
+        Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Node> queue = new ArrayDeque<>();
+        seen.add(root);
+        queue.add(root);
+        // every move adds a stone, so all parents of a node are seen before the first of them is taken from the queue
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            newTable.putIfAbsent(node);
+            for (Node child : node.children) {
+                if (seen.add(child)) {
+                    if (!seen.contains(child.parent)) {
+                        child.move = getMove(node, child);
+                        child.parent = node;
+                    }
+                    queue.add(child);
+                }
+            }
+        }
+        return newTable;
+    }
 
-        Board oldBoard = game.getBoard();
-        Color turn = oldBoard.getTurn();
+    /**
+     * Finds the node of a position in a tree, with the same player to move as at the root of the tree.
+     * The boards are compared by their hash first, so nodes of other positions are skipped quickly.
+     * @param node the node to search from
+     * @param board the position to find
+     * @param depth the number of moves to look below the node
+     * @return the node of the position, null if it is not in the tree up to that depth
+     */
+    //@pure
+    private static Node findPosition(Node node, Board board, int depth) {
+        if (node.isPlayerTurn && node.board.equals(board)) {
+            return node;
+        }
+        if (depth == 0) {
+            return null;
+        }
+        for (Node child : node.children) {
+            Node found = findPosition(child, board, depth - 1);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
 
-        Node node = mcts.search(new Node(oldBoard));
+    /**
+     * Runs a batch of playouts from a node in parallel and backpropagates them together.
+     * @param node the node the playouts start from
+     * @param pool the pool to run the playouts on
+     * @param engines one engine per playout of the batch
+     */
+    private void simulateBatch(Node node, ForkJoinPool pool, List<PlayoutEngine> engines) {
+        Color playerColor = node.isPlayerTurn ? node.board.getTurn() : node.board.getTurn().other();
+        List<Callable<Color>> batch = new ArrayList<>(engines.size());
+        for (PlayoutEngine engine : engines) {
+            batch.add(() -> engine.playout(node.board));
+        }
+        int wins = 0;
+        try {
+            List<Future<Color>> results = pool.invokeAll(batch);
+            for (int i = 0; i < results.size(); i++) {
+                boolean playerWon = results.get(i).get() == playerColor;
+                if (playerWon) {
+                    wins++;
+                }
+                updateRave(engines.get(i), playerWon ? config.getWinScore() : 0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MCTS search was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS search failed", e.getCause());
+        }
 
-        Board newBoard = node.board;
+        backpropagate(batch.size(), wins * config.getWinScore());
+    }
 
-        Set<Integer> moves = newBoard.getFields(turn);
-        moves.removeAll(oldBoard.getFields(turn));
+    /**
+     * Keeps searching the position after the own move on daemon threads, until stopPondering is called
+     * or the node or heap limit is reached. Every tree of the last search is grown below the child of the move,
+     * so whatever the opponent replies, the next search continues from its node if it was reached.
+     * Nothing is pondered if the move ended the game or left no moves for the opponent.
+     * @param move the move returned by the last search
+     */
+    public void startPondering(Move move) {
+        stopPondering();
+        ponderPlayouts = 0;
+        List<Node> roots = new ArrayList<>();
+        List<TranspositionTable> rootTables = new ArrayList<>();
+        for (int i = 0; i < trees.size(); i++) {
+            for (Node child : trees.get(i).children) {
+                if (child.move == move.getField()
+                        && !child.board.isGameOver() && child.board.getStoneCount(Color.EMPTY) > 0) {
+                    roots.add(child);
+                    rootTables.add(tables.get(i));
+                }
+            }
+        }
+        if (roots.isEmpty()) {
+            return;
+        }
 
-        return new Move(moves.iterator().next(),turn);
+        budget = SearchBudget.forPondering(config, countNodes(trees));
+        // the nodes of the trees outside the pondered subtrees are pruned first, they have the fewest visits
+        TreePruner ponderPruner = config.getNodeBudget() == SearchConfig.NO_LIMIT ? null
+                : new TreePruner(budget, config.getNodeBudget(), trees, roots, tables);
+        ponderWorkers = createWorkers();
+        for (int i = 0; i < ponderWorkers.size(); i++) {
+            MCTS worker = ponderWorkers.get(i);
+            // root parallel workers ponder their own tree, the others share one
+            Node root = roots.get(i % roots.size());
+            worker.table = rootTables.get(i % roots.size());
+            worker.pruner = ponderPruner;
+            Thread thread = new Thread(() -> worker.grow(root), "MCTS ponder " + i);
+            thread.setDaemon(true);
+            ponderThreads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops pondering and waits until the threads are done, so the trees can be searched again.
+     * Does nothing if MCTS is not pondering.
+     */
+    public void stopPondering() {
+        if (ponderThreads.isEmpty()) {
+            return;
+        }
+        budget.cancel();
+        boolean interrupted = false;
+        for (Thread thread : ponderThreads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        ponderPlayouts = 0;
+        for (MCTS worker : ponderWorkers) {
+            ponderPlayouts += worker.playoutEngine.getNumOfPlayouts();
+        }
+        ponderThreads = new ArrayList<>();
+        ponderWorkers = new ArrayList<>();
+    }
+
+    /**
+     * Checks if MCTS is searching on the time of the opponent.
+     * @return true if pondering threads are running
+     */
+    //@pure
+    public boolean isPondering() {
+        return !ponderThreads.isEmpty();
+    }
+
+    /**
+     * Stops pondering, called when the game is over or the player is replaced.
+     */
+    @Override
+    public void stop() {
+        stopPondering();
+    }
+
+    /**
+     * Starts the budget of a search, the nodes the trees already have count against the node limit.
+     * With early stop the budget ends the search once the move of the roots is decided.
+     * With a node budget the pruner of the search keeps the trees within it.
+     * @param roots the roots of the trees to search
+     * @param rootTables the transposition tables of the trees in the same order
+     */
+    private void startSearch(List<Node> roots, List<TranspositionTable> rootTables) {
+        budget = new SearchBudget(config, countNodes(roots), roots);
+        pruner = config.getNodeBudget() == SearchConfig.NO_LIMIT ? null
+                : new TreePruner(budget, config.getNodeBudget(), roots, roots, rootTables);
+    }
+
+    /**
+     * Keeps the stop reason, duration and saved time of the search that just ended.
+     */
+    private void finishSearch() {
+        stopReason = budget.getStopReason();
+        elapsed = budget.getElapsed();
+        boolean decided = stopReason == StopReason.DECIDED || stopReason == StopReason.FORCED_MOVE
+                || stopReason == StopReason.SOLVED;
+        savedTime = decided && config.getTimeLimit() != SearchConfig.NO_LIMIT
+                ? Math.max(0, config.getTimeLimit() - elapsed) : 0;
+    }
+
+    /**
+     * Creates one worker per thread, each with a differently seeded playout engine,
+     * that search within the budget of the running search.
+     * @return the workers
+     */
+    private List<MCTS> createWorkers() {
+        List<MCTS> workers = new ArrayList<>();
+        for (int i = 0; i < config.getThreads(); i++) {
+            MCTS worker = new MCTS(config, random.split());
+            worker.budget = budget;
+            worker.pruner = pruner;
+            workers.add(worker);
+        }
+        return workers;
+    }
+
+    /**
+     * Runs the search tasks on a thread pool, or on the calling thread if there is only one.
+     * @param tasks the tasks to run
+     * @return the results of the tasks in order
+     */
+    private List<Node> run(List<Callable<Node>> tasks) {
+        List<Node> results = new ArrayList<>();
+        if (tasks.size() == 1) {
+            try {
+                results.add(tasks.get(0).call());
+            } catch (Exception e) {
+                throw new IllegalStateException("MCTS search failed", e);
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Node> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MCTS search was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS search failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Sums the playouts of the workers of the last search.
+     * @param workers the workers of the search
+     */
+    private void countPlayouts(List<MCTS> workers) {
+        playouts = 0;
+        for (MCTS worker : workers) {
+            playouts += worker.playoutEngine.getNumOfPlayouts();
+        }
+    }
+
+    /**
+     * Merges the root children of several trees of the same position by the move that leads to them.
+     * @param board the position of the roots
+     * @param roots the roots of the trees
+     * @return a new root with one child per move, holding the summed scores and visits
+     */
+    private Node merge(Board board, List<Node> roots) {
+        if (roots.size() == 1) {
+            return roots.get(0);
+        }
+        Node merged = new Node(board);
+        merged.untried = roots.get(0).untried;
+        Node[] children = new Node[board.getNumOfFields()];
+        for (Node root : roots) {
+            merged.visitCount += root.visitCount;
+            for (Node child : root.children) {
+                Node mergedChild = children[child.move];
+                if (mergedChild == null) {
+                    mergedChild = new Node(merged, child.isPlayerTurn, child.board);
+                    mergedChild.move = child.move;
+                    children[child.move] = mergedChild;
+                    merged.children.add(mergedChild);
+                }
+                if (child.isProven()) {
+                    mergedChild.proven = child.proven;
+                }
+                mergedChild.score += child.score;
+                mergedChild.visitCount += child.visitCount;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the number of playouts of the last search, summed over all threads.
+     * @return the number of playouts
+     */
+    //@pure
+    public long getNumOfPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the number of nodes in the trees of the last search, summed over all trees.
+     * The nodes are counted by walking the trees, so this should not be called during a search.
+     * @return the number of nodes including the roots
+     */
+    //@pure
+    public long getNumOfNodes() {
+        return countNodes(trees);
+    }
+
+    /**
+     * Counts the nodes of trees by walking them, a node shared by several parents is counted once.
+     * @param roots the roots of the trees
+     * @return the number of nodes including the roots
+     */
+    //@pure
+    private long countNodes(List<Node> roots) {
+        // only a tree with a transposition table can reach a node twice
+        Set<Node> seen = config.getTranspositionCapacity() == 0 ? null
+                : Collections.newSetFromMap(new IdentityHashMap<>());
+        long nodes = 0;
+        Deque<Node> stack = new ArrayDeque<>(roots);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (seen != null && !seen.add(node)) {
+                continue;
+            }
+            nodes++;
+            stack.addAll(node.children);
+        }
+        return nodes;
+    }
+
+    /**
+     * Estimates the heap the trees of the last search take, from their number of nodes.
+     * The nodes are counted by walking the trees, so this should not be called during a search.
+     * @return the estimated bytes, 0 if nothing was searched yet
+     */
+    //@pure
+    public long getNumOfBytes() {
+        return trees.isEmpty() ? 0 : getNumOfNodes() * Node.estimateBytes(trees.get(0).board.getNumOfFields());
+    }
+
+    /**
+     * Returns how often the last search pruned its trees to stay within the node budget.
+     * @return the number of prune events, 0 without a node budget
+     */
+    //@pure
+    public long getNumOfPruneEvents() {
+        return pruner == null ? 0 : pruner.getPruneEvents();
+    }
+
+    /**
+     * Returns the number of nodes the last search pruned from its trees.
+     * @return the number of pruned nodes, 0 without a node budget
+     */
+    //@pure
+    public long getNumOfPrunedNodes() {
+        return pruner == null ? 0 : pruner.getPrunedNodes();
+    }
+
+    /**
+     * Returns how often the trees of the last search reached a position that already had a node,
+     * which then got another parent instead of a new node, summed over all trees.
+     * Nodes shared by pondering before the search are included.
+     * @return the number of transpositions, 0 if positions are not shared
+     */
+    //@pure
+    public long getNumOfTranspositions() {
+        long hits = 0;
+        for (TranspositionTable tree : tables) {
+            hits += tree == null ? 0 : tree.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the number of positions evicted from the transposition tables of the last search, summed over all trees.
+     * @return the number of evicted positions, 0 if positions are not shared
+     */
+    //@pure
+    public long getNumOfEvictions() {
+        long evictions = 0;
+        for (TranspositionTable tree : tables) {
+            evictions += tree == null ? 0 : tree.getEvictions();
+        }
+        return evictions;
+    }
+
+    /**
+     * Returns the number of visits the last search took over from the search before, summed over all trees.
+     * @return the visits of the reused subtrees, 0 if every tree was started new
+     */
+    //@pure
+    public long getNumOfReusedVisits() {
+        return reusedVisits;
+    }
+
+    /**
+     * Returns the number of playouts of the last pondering, summed over all threads.
+     * @return the number of playouts, 0 if it did not ponder
+     */
+    //@pure
+    public long getNumOfPonderPlayouts() {
+        return ponderPlayouts;
+    }
+
+    /**
+     * Returns the limit that ended the last search.
+     * @return the stop reason, null if nothing was searched yet
+     */
+    //@pure
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Returns how long the last search took.
+     * @return the duration in milliseconds
+     */
+    //@pure
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns how much of its time limit the last search did not use because its move was decided early.
+     * @return the saved time in milliseconds, 0 if the search ran until a limit or has no time limit
+     */
+    //@pure
+    public long getSavedTime() {
+        return savedTime;
+    }
+
+    /**
+     * Returns the settings of the searches.
+     * @return the config
+     */
+    //@pure
+    public SearchConfig getConfig() {
+        return config;
     }
 
     /**
@@ -92,148 +848,412 @@ public class MCTS implements Strategy {
      */
     public Node search(Node root) {
         Node winner;
-        double timeLimit;
 
-        addChildNodes(root);
+        table = createTable(root);
+        startSearch(List.of(root), Collections.singletonList(table));
+        grow(root);
+        finishSearch();
+
+        winner = getWinnerNode(root);
+        //printScores(root);
+        //System.out.format("%nThe optimal node is: %02d%n", root.children.indexOf(winner) + 1);
+        //System.out.println(winner.board.toString());
 
-        timeLimit = System.currentTimeMillis() + TIME_LIMIT;
+        return winner;
+    }
 
-        while (System.currentTimeMillis() < timeLimit) {
+    /**
+     * Grows the tree of the root with simulations until a limit of the budget is reached.
+     * Several workers may grow the same tree at the same time.
+     * @param root the root of the tree
+     * @return the root
+     */
+    private Node grow(Node root) {
+        addChildNodes(root);
 
-            Node promisingNode = getPromisingNode(root);
+        while (budget.reserve(1) > 0) {
+            if (pruner != null) {
+                pruner.enter();
+            }
+            try {
+                Node promisingNode = getPromisingNode(root);
 
-            if (promisingNode.children.isEmpty()) {
                 addChildNodes(promisingNode);
-            }
+                if (config.isSolver()) {
+                    prove();
+                }
+
+                simulateRandomPlay(promisingNode);
 
-            simulateRandomPlay(promisingNode);
+                removeVirtualLoss();
+            } finally {
+                if (pruner != null) {
+                    pruner.exit();
+                }
+            }
         }
 
-        winner = getWinnerNode(root);
-        //printScores(root);
-        //System.out.format("%nThe optimal node is: %02d%n", root.children.indexOf(winner) + 1);
-        //System.out.println(winner.board.toString());
+        return root;
+    }
 
-        return winner;
+    /**
+     * Removes the virtual losses that the last selection of this worker added, from every node of its path below the root.
+     */
+    private void removeVirtualLoss() {
+        for (int i = 1; i < path.size(); i++) {
+            path.get(i).removeVirtualLoss();
+        }
     }
 
     /**
-     * adds all possible children to a node
-     * with one move played on the board.
-     * isPlayerTurn is flipped
-     * @param node
+     * Expands a node by storing the moves that can become its children,
+     * the children themselves are only created when selection first picks them.
+     * If the player to move can capture, the capture is the only move.
+     * A node is only expanded once, by the first worker that gets to it,
+     * later calls do nothing.
+     * @param node the node to expand
      */
-    //TODO add dynamic expansion
     public void addChildNodes(Node node) {
-//        System.out.println(node.toString());
-        if(!node.board.isGameOver()) {
-            Move winingMove = findWinningMove(node.board);
-            if(winingMove == null) {
-                for (int i : node.board.getFields(Color.EMPTY)) {
-                    Board board = node.board.deepCopy();
-                    board.setField(i, board.getTurn());
-                    node.children.add(new Node(node, !node.isPlayerTurn, board));
+        if(!node.claimExpansion() || node.board.isGameOver()) {
+            return;
+        }
+        Move winingMove = findWinningMove(node.board);
+        if(winingMove != null) {
+            node.untried = new int[] {winingMove.getField()};
+            return;
+        }
+        PointSet empty = node.board.getFieldPoints(Color.EMPTY);
+        int[] moves = new int[empty.size()];
+        int count = 0;
+        for (int i = empty.first(); i != -1; i = empty.next(i)) {
+            moves[count++] = i;
+        }
+        if (config.isProgressiveWidening()) {
+            sortByPrior(node.board, moves);
+        }
+        node.untried = moves;
+    }
+
+    /**
+     * Turns an untried move of a node into a child, with isPlayerTurn flipped.
+     * If the position after the move already has a node in the transposition table, that node becomes the child
+     * with its statistics and subtree, otherwise a new node is created and added to the table.
+     * @param node the parent
+     * @param move the field of the move
+     * @return the child
+     */
+    private Node addChild(Node node, int move) {
+        Board board = node.board.deepCopy();
+        board.setField(move, board.getTurn());
+        Node child = table == null ? null : table.get(board);
+        if (child == null) {
+            Node created = new Node(node, !node.isPlayerTurn, board);
+            created.move = move;
+            // another worker may have added the position in the meantime
+            child = table == null ? created : table.putIfAbsent(created);
+            if (child == created) {
+                budget.addNode();
+            }
+        }
+        node.addChild(child);
+        return child;
+    }
+
+    /**
+     * Returns the field played to get from a node to one of its children.
+     * A child stores the move from the parent that created it, for the other parents of a shared child
+     * it is the stone their positions differ in.
+     * @param node the parent
+     * @param child the child
+     * @return the field of the move
+     */
+    //@pure
+    private static int getMove(Node node, Node child) {
+        if (child.parent == node) {
+            return child.move;
+        }
+        return child.board.getFieldPoints().minus(node.board.getFieldPoints()).first();
+    }
+
+    /**
+     * Orders moves by their prior, the most promising first.
+     * The prior prefers moves with many empty neighbors, which are hard to capture,
+     * and moves next to opponent stones, which take away their liberties.
+     * @param board the position of the moves
+     * @param moves the empty fields to order
+     */
+    private static void sortByPrior(Board board, int[] moves) {
+        Color opponent = board.getTurn().other();
+        long[] keyed = new long[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            int prior = 0;
+            for (int n = 0; n < board.numOfNeighbors(moves[i]); n++) {
+                Color color = board.getColor(board.getNeighbor(moves[i], n));
+                if (color == Color.EMPTY || color == opponent) {
+                    prior++;
                 }
-            } else {
-                Board board = node.board.deepCopy();
-                board.setField(winingMove.getField(), board.getTurn());
-                node.children.add(new Node(node, !node.isPlayerTurn, board));
             }
+            // highest prior first, lowest field first on a tie
+            keyed[i] = (long) -prior << 32 | moves[i];
         }
+        Arrays.sort(keyed);
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = (int) keyed[i];
+        }
+    }
+
+    /**
+     * Returns the number of children a node may have with progressive widening.
+     * @param visits the visits of the node
+     * @return 1 + WIDENING_FACTOR * visits^WIDENING_EXPONENT, rounded down
+     */
+    //@ensures \result >= 1;
+    //@pure
+    private static int getWidth(int visits) {
+        return 1 + (int) (WIDENING_FACTOR * Math.pow(visits, WIDENING_EXPONENT));
     }
 
     //@ pure;
     public Move findWinningMove(Board board) {
-        for (Set<Integer> group : board.getGroups(board.getTurn().other())) {
-            Set<Integer> liberties = board.getLiberties(group);
-            if(liberties.size() == 1) {
-                return new Move(liberties.iterator().next(), board.getTurn()) ;
-            }
+        int liberty = board.findAtariLiberty(board.getTurn().other());
+        if (liberty == -1) {
+            return null;
         }
-        return null;
+        return new Move(liberty, board.getTurn(), board.getDim());
     }
 
     /**
      * finds a promising node
-     * nodes not yet visited are favored otherwise decided by UCT
-     * see UCT_CONSTANT
+     * untried moves are turned into a child and favored, otherwise decided by UCT
+     * see UCT_CONSTANT, with RAVE the value of a child blends in its all-moves-as-first score
+     * With progressive widening an untried move is only taken while the node has fewer children than its width.
+     * With the solver proven children are skipped, a node whose children are all proven is returned itself.
+     * Every node chosen below the root gets a virtual loss, which counts as a lost visit
+     * until the simulation through it is done. The caller has to remove these again.
+     * The chosen nodes are kept as the path of this worker, the simulation is backpropagated along it.
      * @param rootNode
      * @return
      */
     public Node getPromisingNode(Node rootNode) {
         Node promisingNode = rootNode;
+        path.clear();
+        path.add(rootNode);
+
+        // Iterate until a new child or a node that hasn't been expanded is found.
+        while (true) {
+            List<Node> children = promisingNode.children;
+            if (promisingNode.hasUntried()
+                    && (!config.isProgressiveWidening() || children.size() < getWidth(promisingNode.visitCount))) {
+                Node child = takeChild(promisingNode);
+                if (child != null) {
+                    return child;
+                }
+            }
+            if (children.isEmpty()) {
+                return promisingNode;
+            }
 
-        // Iterate until a node that hasn't been expanded is found.
-        while (!promisingNode.children.isEmpty()) {
             double uctIndex = Double.MIN_VALUE;
-            int nodeIndex = 0;
+            int nodeIndex = -1;
 
-            for (int i = 0; i < promisingNode.children.size(); i++) {
-                Node childNode = promisingNode.children.get(i);
+            for (int i = 0; i < children.size(); i++) {
+                Node childNode = children.get(i);
+                if (config.isSolver() && childNode.isProven()) {
+                    continue;
+                }
                 double uctTemp;
+                int visits = childNode.visitCount + childNode.virtualLoss;
 
-                if (childNode.visitCount == 0) {
+                if (visits == 0) {
+                    childNode.addVirtualLoss();
+                    path.add(childNode);
                     return childNode;
                 }
 
-                uctTemp = ((double) childNode.score / childNode.visitCount) + UCT_CONSTANT * Math.sqrt(Math.log(promisingNode.visitCount) / (double) childNode.visitCount);
+                uctTemp = getValue(childNode, visits) + config.getUctConstant() * Math.sqrt(Math.log(promisingNode.visitCount) / (double) visits);
 
-                if (uctTemp > uctIndex || (uctTemp == uctIndex && Math.random() > 0.5)) {
+                if (nodeIndex == -1 || uctTemp > uctIndex || (uctTemp == uctIndex && random.nextBoolean())) {
                     uctIndex = uctTemp;
                     nodeIndex = i;
                 }
             }
 
-            promisingNode = promisingNode.children.get(nodeIndex);
+            if (nodeIndex == -1) {
+                // every child is proven, with widening the visits of the node open its next move
+                return promisingNode;
+            }
+            promisingNode = children.get(nodeIndex);
+            promisingNode.addVirtualLoss();
+            path.add(promisingNode);
         }
+    }
 
-        return promisingNode;
+    /**
+     * Turns the next untried move of a node into a child with a virtual loss and adds it to the path.
+     * @param node the node
+     * @return the child, null if no untried move is left
+     */
+    private Node takeChild(Node node) {
+        int move = node.takeUntried();
+        if (move == -1) {
+            return null;
+        }
+        Node child = addChild(node, move);
+        child.addVirtualLoss();
+        path.add(child);
+        return child;
     }
 
     /**
      * Simulates a random play from a nodes current state and back propagates
-     * the result.
+     * the result along the path of the last selection, which has to end at the node.
      *
      * @param promisingNode Node that will be simulated.
      */
     public void simulateRandomPlay(Node promisingNode) {
 
-        Node tempNode = promisingNode;
-
-        ComputerPlayer p1 = new ComputerPlayer(new SimpleStrategy(), Color.BLACK);
-        ComputerPlayer p2 = new ComputerPlayer(new SimpleStrategy(), Color.WHITE);
-        Game game = new Game(p1, p2, promisingNode.board);
-
         Color playerColor = promisingNode.isPlayerTurn ? promisingNode.board.getTurn() : promisingNode.board.getTurn().other();
 
-
-        while(!game.isGameOver()) {
-            Move move = game.getTurn().determineMove(game);
-            game.doMove(move);
-        }
+        Color winner = playoutEngine.playout(promisingNode.board);
 
 //        System.out.println(promisingNode.board.toString());
 //        System.out.println(promisingNode.isPlayerTurn);
-//        System.out.println(game.getBoard().toString());
 
-        promisingNode.playerWon = game.getWinner() == playerColor;
+        // kept in a local, other workers may simulate the same node at the same time
+        boolean playerWon = winner == playerColor;
+        promisingNode.playerWon = playerWon;
 
 //        System.out.println(promisingNode.playerWon);
 
         // Back propagation of the random play.
-        while (tempNode != null) {
-            tempNode.visitCount++;
+        backpropagate(1, playerWon ? config.getWinScore() : 0);
+        updateRave(playoutEngine, playerWon ? config.getWinScore() : 0);
 
-            // Add wining scores to booth player and opponent depending on the turn.
-            if (promisingNode.playerWon) {
-                tempNode.score += WIN_SCORE;
+//        System.out.println(promisingNode.score);
+//        System.out.println("-----------------------------------------------------------------");
+    }
+
+    /**
+     * Proves the nodes of the path of the last selection, from the selected node up, as far as they can be proven.
+     */
+    private void prove() {
+        for (int i = path.size() - 1; i >= 0 && prove(path.get(i)); i--) {
+            // the parent can only be proven once its child is
+        }
+    }
+
+    /**
+     * Proves the outcome of a node if it is known. A finished position is won by its winner
+     * and a full board without capture by nobody. Otherwise the node is won by the player to move
+     * as soon as one child is, and once all its moves are children and proven it gets the best outcome
+     * for the player to move: a win, else nobody winning, else a loss.
+     * @param node the node to prove
+     * @return true if the node is proven
+     */
+    private static boolean prove(Node node) {
+        if (node.isProven()) {
+            return true;
+        }
+        Board board = node.board;
+        if (board.isGameOver() || board.getStoneCount(Color.EMPTY) == 0) {
+            Color winner = PlayoutEngine.findWinner(board);
+            node.proven = winner == null ? Color.EMPTY : winner;
+            return true;
+        }
+        Color turn = board.getTurn();
+        List<Node> children = node.children;
+        // a node that is not expanded yet has no moves
+        boolean complete = node.untried.length > 0 && children.size() == node.untried.length;
+        Color best = turn.other();
+        for (Node child : children) {
+            Color proven = child.proven;
+            if (proven == turn) {
+                node.proven = turn;
+                return true;
             }
+            if (proven == null) {
+                complete = false;
+            } else if (proven == Color.EMPTY) {
+                best = Color.EMPTY;
+            }
+        }
+        if (complete) {
+            node.proven = best;
+        }
+        return complete;
+    }
 
-            tempNode = tempNode.parent;
+    /**
+     * Adds the result of simulations to every node of the path of the last selection, and to the nodes
+     * above the start of the path when it starts below the root, as pondering does.
+     * A shared node is only updated through the parent it was selected from,
+     * so it gets every simulation through its position once, whichever move order reached it.
+     * @param visits the number of simulations
+     * @param score the score to add
+     */
+    private void backpropagate(int visits, int score) {
+        for (Node node : path) {
+            // Add wining scores to booth player and opponent depending on the turn.
+            node.update(visits, score);
+        }
+        for (Node node = path.get(0).parent; node != null; node = node.parent) {
+            node.update(visits, score);
         }
+    }
 
-//        System.out.println(promisingNode.score);
-//        System.out.println("-----------------------------------------------------------------");
+    /**
+     * Updates the all-moves-as-first statistics of a simulation, if RAVE is used.
+     * For every node of the path of the last selection and the nodes above it, each child whose move was played
+     * by the player to move at that node, in the tree or in the playout, gets the result.
+     * @param engine the engine that played the playout, it still holds the final position
+     * @param score the score of the simulation
+     */
+    private void updateRave(PlayoutEngine engine, int score) {
+        if (config.getRaveEquivalence() == 0) {
+            return;
+        }
+        for (Node node : path) {
+            updateRave(node, engine, score);
+        }
+        for (Node node = path.get(0).parent; node != null; node = node.parent) {
+            updateRave(node, engine, score);
+        }
+    }
+
+    /**
+     * Updates the all-moves-as-first statistics of the children of one node.
+     * @param node the node
+     * @param engine the engine that played the playout
+     * @param score the score of the simulation
+     */
+    private void updateRave(Node node, PlayoutEngine engine, int score) {
+        Color turn = node.board.getTurn();
+        for (Node child : node.children) {
+            if (engine.getLastColor(getMove(node, child)) == turn) {
+                child.updateRave(score);
+            }
+        }
+    }
+
+    /**
+     * Returns the value of a child that UCT exploits.
+     * Without RAVE this is the average score. With RAVE the average RAVE score is blended in
+     * with weight beta = sqrt(k / (3n + k)), where k is the RAVE equivalence and n the visits.
+     * @param child the child
+     * @param visits the visits of the child, including virtual losses
+     * @return the value of the child
+     */
+    //@requires visits > 0;
+    //@pure
+    private double getValue(Node child, int visits) {
+        double value = (double) child.score / visits;
+        int raveVisits = child.raveVisits;
+        int equivalence = config.getRaveEquivalence();
+        if (equivalence == 0 || raveVisits == 0) {
+            return value;
+        }
+        double beta = Math.sqrt(equivalence / (3.0 * visits + equivalence));
+        return (1 - beta) * value + beta * child.raveScore / raveVisits;
     }
 
     /**
@@ -245,7 +1265,21 @@ public class MCTS implements Strategy {
         if(rootNode.children.isEmpty()) {
             return null;
         }
-        return Collections.max(rootNode.children, Comparator.comparing(c -> c.score));
+        // a move proven to win is played at once, moves proven to lose only if every move loses
+        Color turn = rootNode.board.getTurn();
+        List<Node> candidates = new ArrayList<>();
+        for (Node child : rootNode.children) {
+            if (child.proven == turn) {
+                return child;
+            }
+            if (child.proven != turn.other()) {
+                candidates.add(child);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = rootNode.children;
+        }
+        return Collections.max(candidates, Comparator.comparing(c -> c.score));
     }
 
     /**
@@ -1,43 +1,196 @@
 package go.ai.mcts;
 
 import go.model.game.Board;
+import go.model.interfaces.Color;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+/**
+ * A node of the MCTS tree.
+ * The statistics are updated with atomic operations and the children are published as a whole
+ * once a node is expanded, so several workers can search the same tree at the same time.
+ */
 public class Node {
+    private static final AtomicIntegerFieldUpdater<Node> SCORE =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "score");
+    private static final AtomicIntegerFieldUpdater<Node> VISIT_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "visitCount");
+    private static final AtomicIntegerFieldUpdater<Node> VIRTUAL_LOSS =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "virtualLoss");
+    private static final AtomicIntegerFieldUpdater<Node> EXPANDED =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "expanded");
+    private static final AtomicIntegerFieldUpdater<Node> RAVE_SCORE =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "raveScore");
+    private static final AtomicIntegerFieldUpdater<Node> RAVE_VISITS =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "raveVisits");
+    private static final AtomicIntegerFieldUpdater<Node> NUM_OF_TRIED =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "numOfTried");
+    private static final int[] NO_MOVES = new int[0];
+
     Node parent;
-    ArrayList<Node> children;
+    /** The children of the node, only replaced as a whole so a worker never sees a half filled list. */
+    volatile List<Node> children;
+    /** The moves of the node in the order they become children, set when the node is expanded. */
+    volatile int[] untried = NO_MOVES;
+    /** Number of moves taken from untried, can grow past its length when workers race for the last one. */
+    private volatile int numOfTried;
 
     boolean isPlayerTurn;
     boolean playerWon;
 
-    int score;
-    int visitCount;
+    volatile int score;
+    volatile int visitCount;
+    /**
+     * The all-moves-as-first statistics: the score and number of the simulations through the parent
+     * in which the move of this node was played by the player of the parent, not only as the first move.
+     */
+    volatile int raveScore;
+    volatile int raveVisits;
+    /** Number of workers currently searching below this node, each counts as a lost visit. */
+    volatile int virtualLoss;
+    /** 1 once a worker has claimed the expansion of this node. */
+    private volatile int expanded;
+    /**
+     * The winner of the position with perfect play, once the solver proved it:
+     * Color.EMPTY if nobody can win, null while it is not proven.
+     */
+    volatile Color proven;
 
     Board board;
+    /** The field played to get from the parent to this node, -1 for a root. */
+    int move = -1;
 
     public Node() {
+        this(new Board());
+    }
+
+    public Node(Board board) {
         children = new ArrayList<Node>();
         isPlayerTurn = true;
         playerWon = false;
         score = 0;
         visitCount = 0;
-        board = new Board();
-    }
-
-    public Node(Board board) {
-        this();
         this.board = board;
     }
 
     public Node(Node parent, boolean isPlayerTurn) {
-        this();
+        this(parent, isPlayerTurn, new Board());
+    }
+
+    public Node(Node parent, boolean isPlayerTurn, Board board) {
+        this(board);
         this.parent = parent;
         this.isPlayerTurn = isPlayerTurn;
     }
 
-    public Node(Node parent, boolean isPlayerTurn, Board board) {
-        this(parent, isPlayerTurn);
-        this.board = board;
+    /**
+     * Claims the expansion of this node, only the first caller gets it.
+     * @return true if the caller should expand the node
+     */
+    boolean claimExpansion() {
+        return EXPANDED.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * Checks if some moves of the node have not been turned into children yet.
+     * @return true if an untried move is left
+     */
+    //@pure
+    boolean hasUntried() {
+        return numOfTried < untried.length;
+    }
+
+    /**
+     * Takes the next untried move, every move is only handed out once.
+     * @return the field of the move, -1 if all moves were taken
+     */
+    int takeUntried() {
+        int[] moves = untried;
+        int i = NUM_OF_TRIED.getAndIncrement(this);
+        return i < moves.length ? moves[i] : -1;
+    }
+
+    /**
+     * Turns the node back into a leaf by dropping its children, which frees their subtrees.
+     * The statistics of the node are kept and its moves become untried again,
+     * so selection creates the children anew. Only call this when no worker is searching the tree.
+     */
+    void collapse() {
+        children = new ArrayList<>();
+        NUM_OF_TRIED.set(this, 0);
+    }
+
+    /**
+     * Estimates the heap one node takes with its board, child list and moves, assuming compressed references.
+     * The estimate is close to the bytes per node TreeMemoryBenchmark measures.
+     * @param fields the number of fields of the board
+     * @return the estimated bytes per node
+     */
+    //@pure
+    static long estimateBytes(int fields) {
+        long words = (fields + 63) / 64;
+        long node = 72 + 40 + 16 + 4L * fields;
+        long board = 104 + 2 * (16 + 8 * words) + 2 * (16 + 4L * fields) + 2 * (16 + 8 * words * fields);
+        return node + board;
+    }
+
+    /**
+     * Checks if the solver proved who wins the position.
+     * @return true if the outcome is proven
+     */
+    //@pure
+    boolean isProven() {
+        return proven != null;
+    }
+
+    /**
+     * Adds a child by publishing a new list, so workers iterating the old list are not disturbed.
+     * @param child the new child
+     */
+    synchronized void addChild(Node child) {
+        List<Node> list = new ArrayList<>(children.size() + 1);
+        list.addAll(children);
+        list.add(child);
+        children = list;
+    }
+
+    /**
+     * Records the result of one or more simulations through this node.
+     * @param visits the number of simulations
+     * @param score the score to add
+     */
+    void update(int visits, int score) {
+        VISIT_COUNT.addAndGet(this, visits);
+        if (score != 0) {
+            SCORE.addAndGet(this, score);
+        }
+    }
+
+    /**
+     * Records a simulation through the parent in which the move of this node was played by the same player,
+     * at any point after the parent.
+     * @param score the score to add
+     */
+    void updateRave(int score) {
+        RAVE_VISITS.incrementAndGet(this);
+        if (score != 0) {
+            RAVE_SCORE.addAndGet(this, score);
+        }
+    }
+
+    /**
+     * Marks that a worker is searching below this node.
+     */
+    void addVirtualLoss() {
+        VIRTUAL_LOSS.incrementAndGet(this);
+    }
+
+    /**
+     * Marks that a worker finished searching below this node.
+     */
+    void removeVirtualLoss() {
+        VIRTUAL_LOSS.decrementAndGet(this);
     }
 
     @Override
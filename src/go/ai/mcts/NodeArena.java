@@ -0,0 +1,189 @@
+package go.ai.mcts;
+
+import java.util.Arrays;
+
+/**
+ * A search tree stored as parallel arrays of primitives, indexed by node id.
+ * Unlike a tree of Node objects, a node holds no board, list or object header:
+ * it is one entry in each of six int arrays, and the children of a node are stored next to each other.
+ * The position of a node is rebuilt by playing the moves from the root to it.
+ * The root always has id 0. An arena is not thread safe.
+ */
+public final class NodeArena {
+    /** The id used for a missing node or move. */
+    public static final int NONE = -1;
+    /** The number of bytes a node takes in the arrays. */
+    public static final int BYTES_PER_NODE = 6 * Integer.BYTES;
+
+    private static final int ROOT = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** The field played to get from the parent to the node, NONE for the root. */
+    private int[] move;
+    private int[] parent;
+    /** The id of the first child, the others follow it, NONE if the node is not expanded yet. */
+    private int[] firstChild;
+    private int[] numOfChildren;
+    private int[] visits;
+    private int[] score;
+    private int size;
+
+    /**
+     * Creates an arena with only a root.
+     */
+    public NodeArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an arena with only a root, with room for the given number of nodes before it grows.
+     * @param capacity the initial number of nodes
+     */
+    //@requires capacity > 0;
+    public NodeArena(int capacity) {
+        move = new int[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        numOfChildren = new int[capacity];
+        visits = new int[capacity];
+        score = new int[capacity];
+        clear();
+    }
+
+    /**
+     * Removes all nodes except a new root, keeping the arrays for the next tree.
+     */
+    //@ensures size() == 1;
+    public void clear() {
+        size = 0;
+        allocate(1);
+        move[ROOT] = NONE;
+        parent[ROOT] = NONE;
+    }
+
+    /**
+     * Expands a node by adding one child per move, stored next to each other.
+     * @param node the node to expand
+     * @param moves the moves to the children
+     * @param count the number of moves to use
+     * @return the id of the first child
+     */
+    //@requires !isExpanded(node) && 0 <= count && count <= moves.length;
+    //@ensures isExpanded(node) && getNumOfChildren(node) == count;
+    public int addChildren(int node, int[] moves, int count) {
+        int first = allocate(count);
+        for (int i = 0; i < count; i++) {
+            move[first + i] = moves[i];
+            parent[first + i] = node;
+        }
+        firstChild[node] = first;
+        numOfChildren[node] = count;
+        return first;
+    }
+
+    /**
+     * Reserves room for a number of new nodes without visits or children.
+     * The arrays double in size when they are full.
+     * @param count the number of nodes
+     * @return the id of the first new node
+     */
+    private int allocate(int count) {
+        if (size + count > move.length) {
+            int capacity = Math.max(move.length * 2, size + count);
+            move = Arrays.copyOf(move, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            numOfChildren = Arrays.copyOf(numOfChildren, capacity);
+            visits = Arrays.copyOf(visits, capacity);
+            score = Arrays.copyOf(score, capacity);
+        }
+        int first = size;
+        for (int i = first; i < first + count; i++) {
+            firstChild[i] = NONE;
+            numOfChildren[i] = 0;
+            visits[i] = 0;
+            score[i] = 0;
+        }
+        size += count;
+        return first;
+    }
+
+    /**
+     * Records the result of one or more simulations through a node.
+     * @param node the node
+     * @param visits the number of simulations
+     * @param score the score to add
+     */
+    public void update(int node, int visits, int score) {
+        this.visits[node] += visits;
+        this.score[node] += score;
+    }
+
+    /**
+     * Returns the id of the root.
+     * @return 0
+     */
+    //@pure
+    public int getRoot() {
+        return ROOT;
+    }
+
+    /**
+     * Checks if the children of a node were added, a node without moves is expanded without children.
+     * @param node the node
+     * @return true if the node was expanded
+     */
+    //@pure
+    public boolean isExpanded(int node) {
+        return firstChild[node] != NONE;
+    }
+
+    //@pure
+    public int getMove(int node) {
+        return move[node];
+    }
+
+    //@pure
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    //@pure
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    //@pure
+    public int getNumOfChildren(int node) {
+        return numOfChildren[node];
+    }
+
+    //@pure
+    public int getVisits(int node) {
+        return visits[node];
+    }
+
+    //@pure
+    public int getScore(int node) {
+        return score[node];
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     * @return the number of nodes, at least 1 for the root
+     */
+    //@ensures \result >= 1;
+    //@pure
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes the arrays take, including the room not used yet.
+     * @return the size of the arrays in bytes
+     */
+    //@pure
+    public long getNumOfBytes() {
+        return (long) move.length * BYTES_PER_NODE;
+    }
+}
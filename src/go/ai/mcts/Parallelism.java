@@ -0,0 +1,13 @@
+package go.ai.mcts;
+
+/**
+ * How MCTS spreads its search over several threads.
+ */
+public enum Parallelism {
+    /** Every thread searches its own tree, the root children are merged at the end. */
+    ROOT,
+    /** All threads search one shared tree, virtual loss spreads them over different branches. */
+    TREE,
+    /** One thread searches the tree, the playouts of every selected leaf are run in parallel in a batch. */
+    LEAF
+}
@@ -0,0 +1,218 @@
+package go.ai.mcts;
+
+import go.model.interfaces.Color;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits of one search, shared by all its workers.
+ * Workers reserve playouts before they run them, so a playout limit is never exceeded
+ * no matter how many threads search. The first limit that is reached is kept as the stop reason.
+ * A search can also be cancelled, which stops it without a stop reason.
+ * With early stop the budget also ends a search whose move is decided, see SearchConfig.isEarlyStop.
+ */
+final class SearchBudget {
+    /** Number of playouts between two checks whether the move is decided. */
+    static final int CHECK_INTERVAL = 64;
+
+    private final SearchConfig config;
+    private final long timeLimit;
+    private final long maxPlayouts;
+    private final long start = System.currentTimeMillis();
+    /** Number of playouts handed out to the workers. */
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong nodes;
+    /** The roots of the searched trees, null if the search does not stop early. */
+    private final List<Node> roots;
+    /** Number of reserved playouts at which the next check whether the move is decided is due. */
+    private volatile long nextCheck;
+    private volatile StopReason reason;
+    private volatile boolean cancelled;
+
+    /**
+     * Starts the budget of a search.
+     * @param config the limits of the search
+     * @param nodes the number of nodes the trees already have
+     * @param roots the roots of the trees, all of the same position, to stop once their move is decided
+     */
+    SearchBudget(SearchConfig config, long nodes, List<Node> roots) {
+        this(config, nodes, config.getTimeLimit(), config.getMaxPlayouts(), config.isEarlyStop() ? roots : null);
+    }
+
+    private SearchBudget(SearchConfig config, long nodes, long timeLimit, long maxPlayouts, List<Node> roots) {
+        this.config = config;
+        this.nodes = new AtomicLong(nodes);
+        this.timeLimit = timeLimit;
+        this.maxPlayouts = maxPlayouts;
+        this.roots = roots;
+    }
+
+    /**
+     * Starts the budget of pondering, which runs until it is cancelled or the trees reach the node or heap limit.
+     * The time and playout limits are meant for the own moves and are not used, and it does not stop early.
+     * @param config the limits of the search
+     * @param nodes the number of nodes the trees already have
+     * @return the budget
+     */
+    static SearchBudget forPondering(SearchConfig config, long nodes) {
+        return new SearchBudget(config, nodes, SearchConfig.NO_LIMIT, SearchConfig.NO_LIMIT, null);
+    }
+
+    /**
+     * Reserves playouts if no limit is reached yet.
+     * @param playouts the number of playouts the worker wants to run
+     * @return the number of playouts the worker may run, fewer near the playout limit and 0 once the search must stop
+     */
+    //@requires playouts > 0;
+    //@ensures 0 <= \result && \result <= playouts;
+    int reserve(int playouts) {
+        if (reason != null || cancelled) {
+            return 0;
+        }
+        if (System.currentTimeMillis() - start >= timeLimit) {
+            return stop(StopReason.TIME_LIMIT);
+        }
+        if (nodes.get() >= config.getMaxNodes()) {
+            return stop(StopReason.NODE_LIMIT);
+        }
+        if (config.getMaxHeapBytes() != SearchConfig.NO_LIMIT) {
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() >= config.getMaxHeapBytes()) {
+                return stop(StopReason.HEAP_LIMIT);
+            }
+        }
+        long done = reserved.getAndAdd(playouts);
+        long left = maxPlayouts - done;
+        if (left <= 0) {
+            return stop(StopReason.PLAYOUT_LIMIT);
+        }
+        if (roots != null && done >= nextCheck) {
+            nextCheck = done + CHECK_INTERVAL;
+            StopReason decided = checkDecided(done);
+            if (decided != null) {
+                return stop(decided);
+            }
+        }
+        return (int) Math.min(playouts, left);
+    }
+
+    /**
+     * Checks if the move of the search is decided. It is solved if the solver proved the outcome of a root,
+     * and forced if an expanded root has only one move. Otherwise it is decided if the score of the leading move,
+     * summed over the trees, is ahead of every other move by more than the win score times the playouts
+     * that may still be run, including those of running workers. Only a playout limit bounds the playouts left,
+     * a search with a time limit alone is never decided, since how many playouts fit in the time is not known.
+     * Moves proven to lose do not count, they are not searched any more and are only played if nothing else is left.
+     * @param done the number of playouts reserved so far
+     * @return SOLVED, FORCED_MOVE or DECIDED, null if the search should go on
+     */
+    private StopReason checkDecided(long done) {
+        int[] moves = null;
+        for (Node root : roots) {
+            if (root.isProven()) {
+                return StopReason.SOLVED;
+            }
+            if (root.untried.length > 0) {
+                moves = root.untried;
+            }
+        }
+        if (moves == null) {
+            return null;
+        }
+        if (moves.length == 1) {
+            return StopReason.FORCED_MOVE;
+        }
+
+        if (maxPlayouts == SearchConfig.NO_LIMIT) {
+            return null;
+        }
+        long left = maxPlayouts - done;
+        left += (long) config.getThreads() * config.getBatchSize();
+
+        // moves without a child yet have no score, they count as 0
+        long[] scores = new long[roots.get(0).board.getNumOfFields()];
+        boolean[] lost = new boolean[scores.length];
+        Color opponent = roots.get(0).board.getTurn().other();
+        for (Node root : roots) {
+            for (Node child : root.children) {
+                scores[child.move] += child.score;
+                lost[child.move] |= child.proven == opponent;
+            }
+        }
+        long best = 0;
+        long second = 0;
+        for (int move : moves) {
+            if (lost[move]) {
+                continue;
+            }
+            if (scores[move] > best) {
+                second = best;
+                best = scores[move];
+            } else if (scores[move] > second) {
+                second = scores[move];
+            }
+        }
+        return best - second > left * config.getWinScore() ? StopReason.DECIDED : null;
+    }
+
+    /**
+     * Keeps the reason of the first limit that was reached.
+     * @param stopReason the limit that was reached
+     * @return 0, no more playouts
+     */
+    private int stop(StopReason stopReason) {
+        if (reason == null) {
+            reason = stopReason;
+        }
+        return 0;
+    }
+
+    /**
+     * Stops the search, the workers finish their current playout and reserve no more.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Counts a node added to the trees.
+     */
+    void addNode() {
+        nodes.incrementAndGet();
+    }
+
+    /**
+     * Sets the number of nodes after nodes were pruned from the trees.
+     * @param count the number of nodes the trees have now
+     */
+    void setNumOfNodes(long count) {
+        nodes.set(count);
+    }
+
+    /**
+     * Returns the number of nodes of the trees.
+     * @return the number of nodes counted so far
+     */
+    //@pure
+    long getNumOfNodes() {
+        return nodes.get();
+    }
+
+    /**
+     * Returns the limit that ended the search.
+     * @return the stop reason, null while the search is running
+     */
+    //@pure
+    StopReason getStopReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the time since the search started.
+     * @return the elapsed time in milliseconds
+     */
+    //@pure
+    long getElapsed() {
+        return System.currentTimeMillis() - start;
+    }
+}
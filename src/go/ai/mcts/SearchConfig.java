@@ -0,0 +1,478 @@
+package go.ai.mcts;
+
+import go.util.Rng;
+
+/**
+ * The settings of an MCTS search: how it is spread over threads, how it scores nodes and when it stops.
+ * A search stops at whichever limit it reaches first: the time, the number of playouts,
+ * the number of nodes in its trees or the used heap. Limits that are not set do not stop the search,
+ * but at least one of them has to be set.
+ * A config is immutable, create one with the builder:
+ * <pre>
+ * SearchConfig config = SearchConfig.builder().threads(4).timeLimit(1000).maxPlayouts(50000).build();
+ * </pre>
+ */
+public final class SearchConfig {
+    /** The value of a limit that is not set. */
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final int threads;
+    private final Parallelism parallelism;
+    private final int batchSize;
+    private final boolean progressiveWidening;
+    private final boolean pondering;
+    private final boolean earlyStop;
+    private final boolean solver;
+    private final boolean playoutPatterns;
+    private final long timeLimit;
+    private final long maxPlayouts;
+    private final long maxNodes;
+    private final long nodeBudget;
+    private final long maxHeapBytes;
+    private final double uctConstant;
+    private final int winScore;
+    private final int raveEquivalence;
+    private final int transpositionCapacity;
+    private final Long seed;
+
+    private SearchConfig(Builder builder) {
+        this.threads = builder.threads;
+        this.parallelism = builder.parallelism;
+        this.batchSize = builder.batchSize == null ? builder.threads : builder.batchSize;
+        this.progressiveWidening = builder.progressiveWidening;
+        this.pondering = builder.pondering;
+        this.earlyStop = builder.earlyStop;
+        this.solver = builder.solver;
+        this.playoutPatterns = builder.playoutPatterns;
+        this.timeLimit = builder.timeLimit;
+        this.maxPlayouts = builder.maxPlayouts;
+        this.maxNodes = builder.maxNodes;
+        this.nodeBudget = builder.nodeBudget;
+        this.maxHeapBytes = builder.maxHeapBytes;
+        this.uctConstant = builder.uctConstant;
+        this.winScore = builder.winScore;
+        this.raveEquivalence = builder.raveEquivalence;
+        this.transpositionCapacity = builder.transpositionCapacity;
+        this.seed = builder.seed;
+    }
+
+    /**
+     * Creates a builder with the default settings: one thread, root parallelism,
+     * TIME_LIMIT milliseconds per search and the default UCT constant and win score of MCTS.
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a builder that starts from the settings of this config.
+     * @return a new builder with the same settings
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.threads = threads;
+        builder.parallelism = parallelism;
+        builder.batchSize = batchSize;
+        builder.progressiveWidening = progressiveWidening;
+        builder.pondering = pondering;
+        builder.earlyStop = earlyStop;
+        builder.solver = solver;
+        builder.playoutPatterns = playoutPatterns;
+        builder.timeLimit = timeLimit;
+        builder.maxPlayouts = maxPlayouts;
+        builder.maxNodes = maxNodes;
+        builder.nodeBudget = nodeBudget;
+        builder.maxHeapBytes = maxHeapBytes;
+        builder.uctConstant = uctConstant;
+        builder.winScore = winScore;
+        builder.raveEquivalence = raveEquivalence;
+        builder.transpositionCapacity = transpositionCapacity;
+        builder.seed = seed;
+        return builder;
+    }
+
+    //@pure
+    public int getThreads() {
+        return threads;
+    }
+
+    //@pure
+    public Parallelism getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the number of playouts run in parallel per selected leaf with leaf parallelism.
+     * @return the batch size, the number of threads if it was not set
+     */
+    //@pure
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    //@pure
+    public boolean isProgressiveWidening() {
+        return progressiveWidening;
+    }
+
+    /**
+     * Checks if MCTS keeps searching on the time of the opponent, after it played its move.
+     * @return true if it ponders
+     */
+    //@pure
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Checks if a search stops before its limits once the move is decided: when the position has only one move,
+     * or when the leading move of the root leads by more than the runner-up could catch up in the playouts
+     * that are left under the playout limit, so the playouts it skips could not change the move.
+     * How many playouts fit in a time limit is not known, so a search with a time limit alone
+     * only stops early for a forced move or a position the solver proved.
+     * @return true if a search stops early
+     */
+    //@pure
+    public boolean isEarlyStop() {
+        return earlyStop;
+    }
+
+    /**
+     * Checks if the search proves wins and losses. Finished positions are proven for their winner,
+     * a position is proven for the player to move once one move wins for them, and for the best outcome
+     * of its moves once all moves are proven. Proven nodes are skipped by selection,
+     * the move of a proven root is played without searching further when the search stops early.
+     * @return true if the solver is used
+     */
+    //@pure
+    public boolean isSolver() {
+        return solver;
+    }
+
+    /**
+     * Checks if the playouts draw their random moves weighted by the 3x3 patterns of PatternTable.DEFAULT
+     * instead of uniformly. Captures and escapes from atari are played first either way.
+     * @return true if the playouts use patterns
+     */
+    //@pure
+    public boolean isPlayoutPatterns() {
+        return playoutPatterns;
+    }
+
+    /**
+     * Returns the time per search.
+     * @return the time in milliseconds, NO_LIMIT if the time is not limited
+     */
+    //@pure
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Returns the number of playouts after which a search stops, summed over all threads.
+     * @return the maximum number of playouts, NO_LIMIT if it is not limited
+     */
+    //@pure
+    public long getMaxPlayouts() {
+        return maxPlayouts;
+    }
+
+    /**
+     * Returns the number of nodes after which a search stops, summed over all trees.
+     * @return the maximum number of nodes, NO_LIMIT if it is not limited
+     */
+    //@pure
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Returns the number of nodes at which the least visited subtrees are collapsed into leaves, summed over all
+     * trees. Unlike the node limit this does not stop the search, the trees are pruned and the search goes on.
+     * @return the node budget, NO_LIMIT if the trees are never pruned
+     */
+    //@pure
+    public long getNodeBudget() {
+        return nodeBudget;
+    }
+
+    /**
+     * Returns the used heap after which a search stops. The used heap includes garbage
+     * that was not collected yet, so this is a rough cap.
+     * @return the maximum used heap in bytes, NO_LIMIT if it is not limited
+     */
+    //@pure
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    //@pure
+    public double getUctConstant() {
+        return uctConstant;
+    }
+
+    //@pure
+    public int getWinScore() {
+        return winScore;
+    }
+
+    /**
+     * Returns the number of visits at which the RAVE value and the plain value of a node weigh the same.
+     * The weight of the RAVE value is beta = sqrt(k / (3n + k)) for n visits and equivalence k,
+     * so it starts at 1 and fades as the node gets visits of its own.
+     * @return the equivalence k, 0 if RAVE is not used
+     */
+    //@pure
+    public int getRaveEquivalence() {
+        return raveEquivalence;
+    }
+
+    /**
+     * Returns the number of positions a tree keeps in its transposition table.
+     * With a table, a position reached by different move orders shares one node and its statistics,
+     * so the tree becomes a directed acyclic graph.
+     * @return the capacity of the table, 0 if positions are not shared
+     */
+    //@pure
+    public int getTranspositionCapacity() {
+        return transpositionCapacity;
+    }
+
+    /**
+     * Creates the random generator a search splits the generators of its threads from.
+     * With a seed a search with only a playout or node limit always plays the same,
+     * with tree parallelism only if it has one thread, since the threads then share one tree.
+     * @return a generator with the seed of the config, or a randomly seeded one if no seed was set
+     */
+    public Rng createRng() {
+        return seed == null ? new Rng() : new Rng(seed);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchConfig{threads=" + threads + ", parallelism=" + parallelism + ", batchSize=" + batchSize
+                + ", progressiveWidening=" + progressiveWidening + ", pondering=" + pondering
+                + ", earlyStop=" + earlyStop + ", solver=" + solver + ", playoutPatterns=" + playoutPatterns
+                + ", timeLimit=" + format(timeLimit)
+                + ", maxPlayouts=" + format(maxPlayouts) + ", maxNodes=" + format(maxNodes) + ", nodeBudget=" + format(nodeBudget)
+                + ", maxHeapBytes=" + format(maxHeapBytes) + ", uctConstant=" + uctConstant
+                + ", winScore=" + winScore + ", raveEquivalence=" + raveEquivalence
+                + ", transpositionCapacity=" + transpositionCapacity + ", seed=" + seed + "}";
+    }
+
+    private static String format(long limit) {
+        return limit == NO_LIMIT ? "none" : Long.toString(limit);
+    }
+
+    /**
+     * Collects the settings of a search config.
+     */
+    public static final class Builder {
+        private int threads = 1;
+        private Parallelism parallelism = Parallelism.ROOT;
+        /** Null until set, then the number of threads is used. */
+        private Integer batchSize;
+        private boolean progressiveWidening;
+        private boolean pondering;
+        private boolean earlyStop = true;
+        private boolean solver = true;
+        private boolean playoutPatterns;
+        private long timeLimit = MCTS.TIME_LIMIT;
+        private long maxPlayouts = NO_LIMIT;
+        private long maxNodes = NO_LIMIT;
+        private long nodeBudget = NO_LIMIT;
+        private long maxHeapBytes = NO_LIMIT;
+        private double uctConstant = MCTS.UCT_CONSTANT;
+        private int winScore = MCTS.WIN_SCORE;
+        private int raveEquivalence;
+        private int transpositionCapacity;
+        private Long seed;
+
+        private Builder() {
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder parallelism(Parallelism parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the number of playouts per selected leaf with leaf parallelism, by default the number of threads.
+         * @param batchSize the batch size
+         * @return this builder
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder progressiveWidening(boolean progressiveWidening) {
+            this.progressiveWidening = progressiveWidening;
+            return this;
+        }
+
+        /**
+         * Sets whether MCTS keeps searching the position after its move until the opponent replied.
+         * Pondering only stops at the node and heap limits, not at the time and playout limits.
+         * @param pondering true to ponder
+         * @return this builder
+         */
+        public Builder pondering(boolean pondering) {
+            this.pondering = pondering;
+            return this;
+        }
+
+        /**
+         * Sets whether a search stops before its limits once its move is decided, which it does by default.
+         * @param earlyStop false to always search until a limit is reached
+         * @return this builder
+         */
+        public Builder earlyStop(boolean earlyStop) {
+            this.earlyStop = earlyStop;
+            return this;
+        }
+
+        /**
+         * Sets whether the search proves wins and losses and skips proven nodes, which it does by default.
+         * @param solver false to sample every position with playouts only
+         * @return this builder
+         */
+        public Builder solver(boolean solver) {
+            this.solver = solver;
+            return this;
+        }
+
+        /**
+         * Sets whether the playouts weight their random moves by 3x3 patterns, by default they draw them uniformly.
+         * @param playoutPatterns true to use the pattern table
+         * @return this builder
+         */
+        public Builder playoutPatterns(boolean playoutPatterns) {
+            this.playoutPatterns = playoutPatterns;
+            return this;
+        }
+
+        /**
+         * Sets the time per search.
+         * @param timeLimit the time in milliseconds, NO_LIMIT to not limit the time
+         * @return this builder
+         */
+        public Builder timeLimit(long timeLimit) {
+            this.timeLimit = timeLimit;
+            return this;
+        }
+
+        /**
+         * Sets the number of playouts after which a search stops.
+         * @param maxPlayouts the number of playouts, NO_LIMIT to not limit them
+         * @return this builder
+         */
+        public Builder maxPlayouts(long maxPlayouts) {
+            this.maxPlayouts = maxPlayouts;
+            return this;
+        }
+
+        /**
+         * Sets the number of nodes after which a search stops.
+         * @param maxNodes the number of nodes, NO_LIMIT to not limit them
+         * @return this builder
+         */
+        public Builder maxNodes(long maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * Sets the number of nodes at which the trees are pruned, so long searches and reused trees stay
+         * within a fixed heap. MCTS.getNumOfBytes estimates how much heap the nodes take.
+         * @param nodeBudget the number of nodes, NO_LIMIT to never prune
+         * @return this builder
+         */
+        public Builder nodeBudget(long nodeBudget) {
+            this.nodeBudget = nodeBudget;
+            return this;
+        }
+
+        /**
+         * Sets the used heap after which a search stops.
+         * @param maxHeapBytes the used heap in bytes, NO_LIMIT to not limit it
+         * @return this builder
+         */
+        public Builder maxHeapBytes(long maxHeapBytes) {
+            this.maxHeapBytes = maxHeapBytes;
+            return this;
+        }
+
+        public Builder uctConstant(double uctConstant) {
+            this.uctConstant = uctConstant;
+            return this;
+        }
+
+        public Builder winScore(int winScore) {
+            this.winScore = winScore;
+            return this;
+        }
+
+        /**
+         * Sets the RAVE equivalence, which blends all-moves-as-first statistics into the UCT value of a node.
+         * MCTS.RAVE_EQUIVALENCE is a good start, higher values trust the RAVE values for more visits.
+         * @param raveEquivalence the number of visits at which both values weigh the same, 0 to not use RAVE
+         * @return this builder
+         */
+        public Builder raveEquivalence(int raveEquivalence) {
+            this.raveEquivalence = raveEquivalence;
+            return this;
+        }
+
+        /**
+         * Sets the capacity of the transposition table of every tree, which shares the nodes of equal positions.
+         * MCTS.TRANSPOSITION_CAPACITY is a good start, when the table is full its least visited positions are evicted.
+         * @param transpositionCapacity the number of positions per table, 0 to not share positions
+         * @return this builder
+         */
+        public Builder transpositionCapacity(int transpositionCapacity) {
+            this.transpositionCapacity = transpositionCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random generators of the search, for repeatable runs.
+         * @param seed the seed
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Creates the config.
+         * @return a config with the settings of this builder
+         * @throws IllegalArgumentException if a setting is out of range or no limit is set
+         */
+        public SearchConfig build() {
+            if (threads < 1 || timeLimit < 1 || (batchSize != null && batchSize < 1)) {
+                throw new IllegalArgumentException("MCTS needs at least one thread, one millisecond and one playout " +
+                        "per batch, got " + threads + " threads, " + timeLimit + "ms and " + batchSize + " playouts");
+            }
+            if (maxPlayouts < 1 || maxNodes < 1 || nodeBudget < 1 || maxHeapBytes < 1 || uctConstant < 0 || winScore < 1
+                    || raveEquivalence < 0 || transpositionCapacity < 0) {
+                throw new IllegalArgumentException("MCTS limits and win score must be positive and the UCT constant, " +
+                        "RAVE equivalence and transposition capacity must not be negative, got " + maxPlayouts
+                        + " playouts, " + maxNodes + " nodes, a node budget of " + nodeBudget + ", " + maxHeapBytes
+                        + " bytes, UCT constant " + uctConstant + ", win score " + winScore + ", RAVE equivalence " + raveEquivalence
+                        + " and transposition capacity " + transpositionCapacity);
+            }
+            if (timeLimit == NO_LIMIT && maxPlayouts == NO_LIMIT && maxNodes == NO_LIMIT && maxHeapBytes == NO_LIMIT) {
+                throw new IllegalArgumentException("MCTS needs at least one limit to stop its search");
+            }
+            return new SearchConfig(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package go.ai.mcts;
+
+/**
+ * The limit of a SearchConfig that ended a search, or the decision that made the rest of the search useless.
+ */
+public enum StopReason {
+    /** The time per search ran out. */
+    TIME_LIMIT,
+    /** The maximum number of playouts was played. */
+    PLAYOUT_LIMIT,
+    /** The trees reached the maximum number of nodes. */
+    NODE_LIMIT,
+    /** The used heap grew past the maximum. */
+    HEAP_LIMIT,
+    /** The leading move could no longer be overtaken in the playouts that were left. */
+    DECIDED,
+    /** The position had only one move, a capture that wins or the last empty field. */
+    FORCED_MOVE,
+    /** The solver proved the outcome of the position. */
+    SOLVED
+}
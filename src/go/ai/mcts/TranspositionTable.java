@@ -0,0 +1,124 @@
+package go.ai.mcts;
+
+import go.model.game.Board;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The nodes of a search tree by position, so a position reached by different move orders
+ * gets one node and the tree becomes a directed acyclic graph.
+ * The nodes are keyed by the Zobrist hash of their board, a node is only returned for a board equal to its own,
+ * so a hash collision costs a shared node but never returns the wrong position.
+ * When the table holds more than its capacity, the least visited nodes are evicted until it is half full.
+ * An evicted node stays in the tree, it is just no longer found for positions reached by another path.
+ * Several workers can look up and add nodes at the same time.
+ */
+final class TranspositionTable {
+    private final int capacity;
+    private final ConcurrentHashMap<Long, Node> nodes = new ConcurrentHashMap<>();
+    /** Set while a worker evicts, the other workers keep searching instead of waiting. */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates an empty table.
+     * @param capacity the number of nodes at which the table evicts
+     */
+    //@requires capacity > 0;
+    TranspositionTable(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the node of a position.
+     * @param board the position
+     * @return the node with an equal board, null if the table has none
+     */
+    Node get(Board board) {
+        Node node = nodes.get(board.hash());
+        if (node == null || !node.board.equals(board)) {
+            return null;
+        }
+        hits.incrementAndGet();
+        return node;
+    }
+
+    /**
+     * Adds the node of a position, unless another worker added a node of the same position first.
+     * @param node the new node
+     * @return the node of the position that is in the table, the given node on a hash collision
+     */
+    Node putIfAbsent(Node node) {
+        Node existing = nodes.putIfAbsent(node.board.hash(), node);
+        if (existing == null) {
+            if (nodes.size() > capacity) {
+                evict();
+            }
+            return node;
+        }
+        if (existing.board.equals(node.board)) {
+            hits.incrementAndGet();
+            return existing;
+        }
+        return node;
+    }
+
+    /**
+     * Removes the nodes with fewer visits than a threshold, doubling the threshold until the table is half full.
+     * Only one worker evicts at a time, the others return at once.
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (long threshold = 1; nodes.size() > capacity / 2; threshold *= 2) {
+                for (Iterator<Node> it = nodes.values().iterator(); it.hasNext(); ) {
+                    if (it.next().visitCount < threshold) {
+                        it.remove();
+                        evictions.incrementAndGet();
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Removes all nodes from the table.
+     */
+    void clear() {
+        nodes.clear();
+    }
+
+    /**
+     * Returns the number of nodes in the table.
+     * @return the number of nodes
+     */
+    //@pure
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns how often a position was found in the table instead of getting a new node.
+     * @return the number of hits
+     */
+    //@pure
+    long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of nodes removed to keep the table within its capacity.
+     * @return the number of evicted nodes
+     */
+    //@pure
+    long getEvictions() {
+        return evictions.get();
+    }
+}
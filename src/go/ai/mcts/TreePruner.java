@@ -0,0 +1,199 @@
+package go.ai.mcts;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the trees of a search within a node budget, shared by all its workers.
+ * Every iteration of a worker runs between enter and exit. When the trees reach the budget,
+ * the first worker to enter waits until the running iterations are done and collapses the least visited
+ * subtrees into leaves until the trees are down to PRUNE_TARGET of the budget.
+ * A collapsed node keeps its statistics, only the nodes below it are freed and created again if it is selected.
+ * If the nodes the workers grow from hold so much that pruning cannot get there,
+ * the next pruning waits until a quarter of the budget was added, so pruning never runs every iteration.
+ */
+final class TreePruner {
+    /** The part of the node budget the trees are pruned down to. */
+    static final double PRUNE_TARGET = 0.75;
+
+    private final SearchBudget budget;
+    private final long nodeBudget;
+    /** The roots of the trees, the nodes are counted from these. */
+    private final List<Node> trees;
+    /** The nodes the workers grow from, they and the roots of the trees are never collapsed. */
+    private final Set<Node> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** The transposition tables of the trees in the same order, null entries if positions are not shared. */
+    private final List<TranspositionTable> tables;
+    private final boolean shared;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Number of nodes at which the trees are pruned next. */
+    private volatile long limit;
+    private long pruneEvents;
+    private long prunedNodes;
+
+    /**
+     * Creates the pruner of a search.
+     * @param budget the budget of the search, it counts the nodes
+     * @param nodeBudget the number of nodes at which the trees are pruned
+     * @param trees the roots of the trees
+     * @param roots the nodes the workers grow from
+     * @param tables the transposition tables of the trees, null entries if positions are not shared
+     */
+    //@requires nodeBudget > 0 && trees.size() == tables.size();
+    TreePruner(SearchBudget budget, long nodeBudget, List<Node> trees, List<Node> roots,
+               List<TranspositionTable> tables) {
+        this.budget = budget;
+        this.nodeBudget = nodeBudget;
+        this.trees = trees;
+        this.roots.addAll(trees);
+        this.roots.addAll(roots);
+        this.tables = tables;
+        this.shared = tables.stream().anyMatch(table -> table != null);
+        this.limit = nodeBudget;
+    }
+
+    /**
+     * Starts an iteration of a worker, after pruning the trees if they reached the budget.
+     * Every call has to be followed by a call of exit.
+     */
+    void enter() {
+        if (budget.getNumOfNodes() >= limit) {
+            lock.writeLock().lock();
+            try {
+                // another worker may have pruned while this one waited
+                if (budget.getNumOfNodes() >= limit) {
+                    prune();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+    }
+
+    /**
+     * Ends an iteration of a worker.
+     */
+    void exit() {
+        lock.readLock().unlock();
+    }
+
+    /**
+     * Collapses the least visited subtrees until the trees are down to PRUNE_TARGET of the budget,
+     * then counts the nodes that are left and fills the transposition tables with them again.
+     */
+    private void prune() {
+        long before = budget.getNumOfNodes();
+        long target = (long) (nodeBudget * PRUNE_TARGET);
+        List<Node> candidates = new ArrayList<>();
+        for (Node node : walk()) {
+            if (!node.children.isEmpty() && !roots.contains(node)) {
+                candidates.add(node);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(node -> node.visitCount));
+
+        // a subtree may already be smaller because a node below it was collapsed, so the sizes are counted as it goes
+        long nodes = before;
+        for (int i = 0; i < candidates.size() && nodes > target; i++) {
+            Node node = candidates.get(i);
+            nodes -= countBelow(node);
+            node.collapse();
+        }
+
+        List<Node> left = walk();
+        budget.setNumOfNodes(left.size());
+        if (shared) {
+            refillTables();
+        }
+        limit = Math.max(nodeBudget, left.size() + nodeBudget / 4);
+        pruneEvents++;
+        prunedNodes += Math.max(0, before - left.size());
+    }
+
+    /**
+     * Collects the nodes of the trees, a node shared by several parents once.
+     * @return the nodes including the roots of the trees
+     */
+    private List<Node> walk() {
+        List<Node> nodes = new ArrayList<>();
+        Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Node> stack = new ArrayDeque<>(trees);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (!shared || seen.add(node)) {
+                nodes.add(node);
+                stack.addAll(node.children);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the nodes below a node.
+     * @param node the node
+     * @return the number of nodes below it
+     */
+    //@pure
+    private long countBelow(Node node) {
+        Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        long count = 0;
+        Deque<Node> stack = new ArrayDeque<>(node.children);
+        while (!stack.isEmpty()) {
+            Node next = stack.pop();
+            if (!shared || seen.add(next)) {
+                count++;
+                stack.addAll(next.children);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills the transposition tables with the nodes that are left, so pruned nodes are not found any more.
+     */
+    private void refillTables() {
+        for (int i = 0; i < trees.size(); i++) {
+            TranspositionTable table = tables.get(i);
+            if (table == null) {
+                continue;
+            }
+            table.clear();
+            Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<Node> stack = new ArrayDeque<>(List.of(trees.get(i)));
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                if (seen.add(node)) {
+                    table.putIfAbsent(node);
+                    stack.addAll(node.children);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how often the trees were pruned.
+     * @return the number of prune events
+     */
+    //@pure
+    long getPruneEvents() {
+        return pruneEvents;
+    }
+
+    /**
+     * Returns the number of nodes freed by pruning.
+     * @return the number of pruned nodes
+     */
+    //@pure
+    long getPrunedNodes() {
+        return prunedNodes;
+    }
+}
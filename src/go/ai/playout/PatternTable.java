@@ -0,0 +1,218 @@
+package go.ai.playout;
+
+import go.model.game.Board;
+import go.model.interfaces.Color;
+
+/**
+ * The weights of playout moves by the 3x3 neighborhood of the field, looked up in a precomputed table.
+ * The eight fields around a field are encoded in a 16 bit code, two bits per field in the order
+ * north west, north, north east, west, east, south west, south, south east:
+ * EMPTY, BLACK, WHITE, or EDGE for a field off the board.
+ * A field is the neighbor in direction 7 - d of its neighbor in direction d, so placing a stone
+ * changes two bits in the code of each field around it and the codes can be kept up to date move by move.
+ * The weights of the table are for black to move, white looks them up with the colors of the code swapped.
+ * The weights favor contact with the opponent, cuts, hane and connections,
+ * and avoid filling own eyes, self atari and the empty edge.
+ */
+public final class PatternTable {
+    public static final int EMPTY = 0;
+    public static final int BLACK = 1;
+    public static final int WHITE = 2;
+    public static final int EDGE = 3;
+    /** The number of fields around a field. */
+    public static final int DIRECTIONS = 8;
+    public static final int NUM_OF_CODES = 1 << (2 * DIRECTIONS);
+
+    private static final int[] ROW_OFFSET = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_OFFSET = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int NORTH_WEST = 0;
+    private static final int NORTH = 1;
+    private static final int NORTH_EAST = 2;
+    private static final int WEST = 3;
+    private static final int EAST = 4;
+    private static final int SOUTH_WEST = 5;
+    private static final int SOUTH = 6;
+    private static final int SOUTH_EAST = 7;
+    private static final int[] ORTHOGONAL = {NORTH, WEST, EAST, SOUTH};
+    /** The corners of the neighborhood with the two orthogonal fields next to them. */
+    private static final int[][] CORNERS = {
+        {NORTH_WEST, NORTH, WEST}, {NORTH_EAST, NORTH, EAST},
+        {SOUTH_WEST, SOUTH, WEST}, {SOUTH_EAST, SOUTH, EAST}};
+    /** The fields around each field for every supported board size. */
+    private static final int[][] AROUND = new int[Board.MAX_DIM + 1][];
+
+    static {
+        for (int dim = Board.MIN_DIM; dim <= Board.MAX_DIM; dim++) {
+            int[] around = new int[dim * dim * DIRECTIONS];
+            for (int field = 0; field < dim * dim; field++) {
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    int row = field / dim + ROW_OFFSET[d];
+                    int col = field % dim + COL_OFFSET[d];
+                    boolean onBoard = 0 <= row && row < dim && 0 <= col && col < dim;
+                    around[field * DIRECTIONS + d] = onBoard ? row * dim + col : -1;
+                }
+            }
+            AROUND[dim] = around;
+        }
+    }
+
+    /** The table every playout engine with patterns uses. */
+    public static final PatternTable DEFAULT = new PatternTable();
+
+    private final int[] black = new int[NUM_OF_CODES];
+    private final int[] white = new int[NUM_OF_CODES];
+
+    private PatternTable() {
+        for (int code = 0; code < NUM_OF_CODES; code++) {
+            black[code] = score(code);
+        }
+        for (int code = 0; code < NUM_OF_CODES; code++) {
+            white[code] = black[swapColors(code)];
+        }
+    }
+
+    /**
+     * Returns the weight of playing a field.
+     * @param code the code of the neighborhood of the field
+     * @param turn the color to move
+     * @return the weight, at least 1
+     */
+    //@requires 0 <= code && code < NUM_OF_CODES && turn != Color.EMPTY;
+    //@ensures \result >= 1;
+    //@pure
+    public int weight(int code, Color turn) {
+        return turn == Color.BLACK ? black[code] : white[code];
+    }
+
+    /**
+     * Computes the code of the neighborhood of a field from scratch.
+     * @param board the board
+     * @param field the field
+     * @return the code of the fields around it
+     */
+    //@requires board.isValidField(field);
+    //@ensures 0 <= \result && \result < NUM_OF_CODES;
+    //@pure
+    public static int code(Board board, int field) {
+        int[] around = around(board.getDim());
+        int code = 0;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int neighbor = around[field * DIRECTIONS + d];
+            int value = neighbor == -1 ? EDGE : valueOf(board.getColor(neighbor));
+            code |= value << (2 * d);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the two bit value of a color in a code.
+     * @param color the color of a field
+     * @return EMPTY, BLACK or WHITE
+     */
+    //@pure
+    public static int valueOf(Color color) {
+        return switch (color) {
+            case BLACK -> BLACK;
+            case WHITE -> WHITE;
+            case EMPTY -> EMPTY;
+        };
+    }
+
+    /**
+     * Returns the fields around every field of a board size, entry field * DIRECTIONS + d holds the field
+     * in direction d, -1 if it is off the board. The table is shared and must not be changed.
+     * @param dim the board size
+     * @return the table of the fields around the fields
+     */
+    //@requires Board.MIN_DIM <= dim && dim <= Board.MAX_DIM;
+    //@pure
+    public static int[] around(int dim) {
+        return AROUND[dim];
+    }
+
+    /**
+     * Returns the field value in one direction of a code.
+     * @param code the code
+     * @param direction the direction
+     * @return EMPTY, BLACK, WHITE or EDGE
+     */
+    //@pure
+    private static int at(int code, int direction) {
+        return (code >>> (2 * direction)) & 3;
+    }
+
+    /**
+     * Swaps black and white in a code, so the weights for black can be used for white.
+     * @param code the code
+     * @return the code with the colors swapped
+     */
+    //@pure
+    private static int swapColors(int code) {
+        int swapped = 0;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int value = at(code, d);
+            if (value == BLACK || value == WHITE) {
+                value = BLACK + WHITE - value;
+            }
+            swapped |= value << (2 * d);
+        }
+        return swapped;
+    }
+
+    /**
+     * Scores a neighborhood for black to move.
+     * @param code the code of the neighborhood
+     * @return the weight of the move, at least 1
+     */
+    //@pure
+    private static int score(int code) {
+        int own = 0;
+        int opponent = 0;
+        int empty = 0;
+        int edge = 0;
+        for (int d : ORTHOGONAL) {
+            switch (at(code, d)) {
+                case BLACK -> own++;
+                case WHITE -> opponent++;
+                case EMPTY -> empty++;
+                default -> edge++;
+            }
+        }
+        if (empty == 0) {
+            // filling an own eye or playing into the opponent, the policy captures before it gets here
+            return own == 0 || opponent == 0 ? 1 : 2;
+        }
+        if (empty == 1 && opponent >= 2) {
+            // the stone has one liberty of its own, most likely self atari
+            return 3;
+        }
+        int stones = 0;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int value = at(code, d);
+            if (value == BLACK || value == WHITE) {
+                stones++;
+            }
+        }
+        if (stones == 0) {
+            return edge > 0 ? 4 : 10;
+        }
+
+        int weight = 10 + 8 * opponent + 3 * own;
+        boolean hane = false;
+        for (int[] corner : CORNERS) {
+            int diagonal = at(code, corner[0]);
+            int first = at(code, corner[1]);
+            int second = at(code, corner[2]);
+            if (first == WHITE && second == WHITE && diagonal != WHITE) {
+                // cuts two opponent stones that are not connected around the corner
+                weight += 10;
+            } else if (first == BLACK && second == BLACK && diagonal != BLACK) {
+                // connects two own stones at the point where the opponent could cut
+                weight += 6;
+            } else if ((first == WHITE && second != WHITE || second == WHITE && first != WHITE) && diagonal == BLACK) {
+                hane = true;
+            }
+        }
+        return hane ? weight + 4 : weight;
+    }
+}
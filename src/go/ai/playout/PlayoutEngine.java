@@ -0,0 +1,314 @@
+package go.ai.playout;
+
+import go.model.game.Board;
+import go.model.interfaces.Color;
+import go.util.FenwickTree;
+import go.util.Rng;
+
+/**
+ * Plays random games to the end, the simulation step of MCTS.
+ * The moves are chosen with the same policy as the simple strategy: capture a group in atari if possible,
+ * otherwise save an own group in atari, otherwise play a random empty field.
+ * Unlike playing a Game with two simple strategy players, the engine works on one scratch board that is
+ * reset for every playout and keeps the empty fields in an array, so it does not allocate per move.
+ * With a pattern table the random move is not uniform: every empty field is weighted by the table
+ * for the 3x3 neighborhood around it. The codes of the neighborhoods are updated as stones are placed,
+ * and the weights are kept in a Fenwick tree per color, so a move is drawn in O(log n).
+ * An engine is not thread safe, every thread needs its own.
+ */
+public class PlayoutEngine {
+    private final Rng random;
+    /** The weights of the random moves, null to draw them uniformly. */
+    private final PatternTable patterns;
+    private Board scratch;
+    /** The empty fields of the scratch board, the first numOfEmpty entries are valid. */
+    private int[] empty = new int[0];
+    /** Position of every empty field in the empty array. */
+    private int[] position = new int[0];
+    private int numOfEmpty;
+    /** The fields around every field of the scratch board, see PatternTable.around. */
+    private int[] around = new int[0];
+    /** The code of the neighborhood of every field of the scratch board, only kept with patterns. */
+    private int[] codes = new int[0];
+    /** The codes of the fields of an empty board, which only have the edge in them. */
+    private int[] edgeCodes = new int[0];
+    /** The weights of the fields while they are collected for the Fenwick trees. */
+    private int[] blackScratch = new int[0];
+    private int[] whiteScratch = new int[0];
+    /** The weights of the empty fields for black and for white to move. */
+    private FenwickTree blackWeights = new FenwickTree(0);
+    private FenwickTree whiteWeights = new FenwickTree(0);
+
+    private long playouts;
+    private long nanos;
+
+    /**
+     * Creates a playout engine with its own random generator.
+     */
+    public PlayoutEngine() {
+        this(new Rng());
+    }
+
+    /**
+     * Creates a playout engine that draws its random moves from the given generator.
+     * The generator must not be used by another thread at the same time.
+     * @param random the random generator to use
+     */
+    public PlayoutEngine(Rng random) {
+        this(random, null);
+    }
+
+    /**
+     * Creates a playout engine that draws its random moves from the given generator, weighted by a pattern table.
+     * The generator must not be used by another thread at the same time.
+     * @param random the random generator to use
+     * @param patterns the weights of the random moves, null to draw them uniformly
+     */
+    public PlayoutEngine(Rng random, PatternTable patterns) {
+        this.random = random;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Plays a random game from the given position until a group is captured or the board is full.
+     * The given board is not changed.
+     *
+     * @param start the position to start from
+     * @return the color of the winner, null if there is none
+     */
+    public Color playout(Board start) {
+        long begin = System.nanoTime();
+        reset(start);
+        Board board = scratch;
+
+        Color winner = board.isGameOver() ? findWinner(board) : null;
+        while (!board.isGameOver() && numOfEmpty > 0) {
+            Color turn = board.getTurn();
+            int field = selectMove(board, turn);
+            board.setField(field, turn);
+            remove(field);
+            if (patterns != null) {
+                updatePatterns(field, turn);
+            }
+            if (board.isGameOver()) {
+                winner = findCapture(board, field, turn);
+            }
+        }
+
+        playouts++;
+        nanos += System.nanoTime() - begin;
+        return winner;
+    }
+
+    /**
+     * Chooses the next move with the simple strategy policy.
+     * Without patterns a random move is drawn a second time if the first has two or more empty neighbors,
+     * with patterns it is drawn by the weights of the table.
+     * @param board the board to choose a move on
+     * @param turn the color to move
+     * @return the field to play
+     */
+    //@requires numOfEmpty > 0;
+    private int selectMove(Board board, Color turn) {
+        int capture = board.findAtariLiberty(turn.other());
+        if (capture != -1) {
+            return capture;
+        }
+        int escape = board.findAtariLiberty(turn);
+        if (escape != -1) {
+            return escape;
+        }
+        if (patterns != null) {
+            FenwickTree weights = turn == Color.BLACK ? blackWeights : whiteWeights;
+            return weights.find(random.nextInt(weights.total()));
+        }
+        int field = empty[random.nextInt(numOfEmpty)];
+        if (board.numOfLiberties(field) >= 2) {
+            field = empty[random.nextInt(numOfEmpty)];
+        }
+        return field;
+    }
+
+    /**
+     * Copies the position to the scratch board and collects its empty fields.
+     * The scratch board and arrays are only allocated again when the board size changes.
+     * @param start the position to copy
+     */
+    private void reset(Board start) {
+        if (scratch == null || scratch.getDim() != start.getDim()) {
+            scratch = start.deepCopy();
+            empty = new int[start.getNumOfFields()];
+            position = new int[start.getNumOfFields()];
+            if (patterns != null) {
+                around = PatternTable.around(start.getDim());
+                codes = new int[start.getNumOfFields()];
+                edgeCodes = new int[start.getNumOfFields()];
+                for (int i = 0; i < edgeCodes.length; i++) {
+                    for (int d = 0; d < PatternTable.DIRECTIONS; d++) {
+                        if (around[i * PatternTable.DIRECTIONS + d] == -1) {
+                            edgeCodes[i] |= PatternTable.EDGE << (2 * d);
+                        }
+                    }
+                }
+                blackScratch = new int[start.getNumOfFields()];
+                whiteScratch = new int[start.getNumOfFields()];
+                blackWeights = new FenwickTree(start.getNumOfFields());
+                whiteWeights = new FenwickTree(start.getNumOfFields());
+            }
+        } else {
+            scratch.copyFrom(start);
+        }
+        numOfEmpty = 0;
+        for (int i = 0; i < scratch.getNumOfFields(); i++) {
+            if (scratch.isEmpty(i)) {
+                position[i] = numOfEmpty;
+                empty[numOfEmpty++] = i;
+            }
+        }
+        if (patterns != null) {
+            resetPatterns();
+        }
+    }
+
+    /**
+     * Computes the codes and weights of the scratch board.
+     * The codes start from those of the empty board and each stone adds itself to the codes around it,
+     * then the Fenwick trees are built in one pass.
+     */
+    private void resetPatterns() {
+        System.arraycopy(edgeCodes, 0, codes, 0, codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            Color color = scratch.getColor(i);
+            if (color != Color.EMPTY) {
+                addStone(i, PatternTable.valueOf(color));
+            }
+        }
+        for (int i = 0; i < codes.length; i++) {
+            boolean free = scratch.getColor(i) == Color.EMPTY;
+            blackScratch[i] = free ? patterns.weight(codes[i], Color.BLACK) : 0;
+            whiteScratch[i] = free ? patterns.weight(codes[i], Color.WHITE) : 0;
+        }
+        blackWeights.setAll(blackScratch);
+        whiteWeights.setAll(whiteScratch);
+    }
+
+    /**
+     * Adds a stone to the codes of the fields around it.
+     * The field is in direction 7 - d of its neighbor in direction d, so only those two bits change.
+     * @param field the field of the stone
+     * @param value the code value of its color
+     */
+    private void addStone(int field, int value) {
+        for (int d = 0; d < PatternTable.DIRECTIONS; d++) {
+            int neighbor = around[field * PatternTable.DIRECTIONS + d];
+            if (neighbor != -1) {
+                codes[neighbor] |= value << (2 * (PatternTable.DIRECTIONS - 1 - d));
+            }
+        }
+    }
+
+    /**
+     * Updates the codes and weights of the fields around a field after a stone was placed on it.
+     * @param field the field that was played
+     * @param color the color of the stone
+     */
+    private void updatePatterns(int field, Color color) {
+        addStone(field, PatternTable.valueOf(color));
+        blackWeights.set(field, 0);
+        whiteWeights.set(field, 0);
+        for (int d = 0; d < PatternTable.DIRECTIONS; d++) {
+            int neighbor = around[field * PatternTable.DIRECTIONS + d];
+            if (neighbor != -1 && blackWeights.get(neighbor) > 0) {
+                blackWeights.set(neighbor, patterns.weight(codes[neighbor], Color.BLACK));
+                whiteWeights.set(neighbor, patterns.weight(codes[neighbor], Color.WHITE));
+            }
+        }
+    }
+
+    /**
+     * Removes a field from the empty fields by moving the last empty field into its place.
+     * @param field the field that was played
+     */
+    private void remove(int field) {
+        int index = position[field];
+        int last = empty[--numOfEmpty];
+        empty[index] = last;
+        position[last] = index;
+    }
+
+    /**
+     * Finds the winner after a move ended the game, the same way Game does.
+     * @param board the board after the move
+     * @param field the field that was played
+     * @param color the color of the move
+     * @return the color of the move if it captured a group, null if it only captured itself
+     */
+    private static Color findCapture(Board board, int field, Color color) {
+        Color opponent = color.other();
+        for (int n = 0; n < board.numOfNeighbors(field); n++) {
+            int neighbor = board.getNeighbor(field, n);
+            if (board.getColor(neighbor) == opponent && board.numOfGroupLiberties(neighbor) == 0) {
+                return color;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the winner of a position that is already over, the same way Game does.
+     * @param board the finished board
+     * @return the color of the winner, null if there is none
+     */
+    //@pure
+    public static Color findWinner(Board board) {
+        Color turn = board.getTurn();
+        for (int i = 0; i < board.getNumOfFields(); i++) {
+            if (board.getColor(i) == turn && board.numOfGroupLiberties(i) == 0) {
+                return turn.other();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the color of a field at the end of the last playout.
+     * A field is played at most once in a game, so this tells which color played it during the playout,
+     * which is what all-moves-as-first statistics need.
+     * @param field the index of the field
+     * @return the color of the field when the last playout ended
+     */
+    //@requires getNumOfPlayouts() > 0;
+    //@pure
+    public Color getLastColor(int field) {
+        return scratch.getColor(field);
+    }
+
+    /**
+     * Returns the code of the neighborhood of a field at the end of the last playout.
+     * @param field the index of the field
+     * @return the code as kept up to date during the playout
+     */
+    //@requires patterns != null && getNumOfPlayouts() > 0;
+    //@pure
+    int getCode(int field) {
+        return codes[field];
+    }
+
+    /**
+     * Returns the number of playouts played by this engine.
+     * @return the number of playouts
+     */
+    //@pure
+    public long getNumOfPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the average speed of this engine over all its playouts.
+     * @return the number of playouts per second of playout time, 0 if nothing was played yet
+     */
+    //@pure
+    public double getPlayoutsPerSecond() {
+        return nanos == 0 ? 0 : playouts * 1e9 / nanos;
+    }
+}
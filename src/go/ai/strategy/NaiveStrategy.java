@@ -3,12 +3,29 @@ package go.ai.strategy;
 import go.ai.interfaces.Strategy;
 import go.model.game.Game;
 import go.model.game.Move;
+import go.util.Rng;
 import java.util.*;
 
 /**
  * Naive strategy that picks an arbitrary (random move) to play.
  */
 public class NaiveStrategy implements Strategy {
+    private final Rng random;
+
+    /**
+     * Creates a naive strategy with its own random generator.
+     */
+    public NaiveStrategy() {
+        this(new Rng());
+    }
+
+    /**
+     * Creates a naive strategy that draws its moves from the given random generator.
+     * @param random the random generator, only used by the thread that plays the strategy
+     */
+    public NaiveStrategy(Rng random) {
+        this.random = random;
+    }
 
     /**
      * Method to determine the next move, which is a random one.
@@ -18,14 +35,11 @@ public class NaiveStrategy implements Strategy {
     public Move determineMove(Game game) {
         List<Move> moves = game.getValidMoves().stream().toList();
 
-        double random = Math.random();
-
         if (moves.isEmpty()) {
             return null;
         }
 
-        double floor = Math.floor(random * (moves.size() - 0.01));
-        return moves.get((int) floor);
+        return moves.get(random.nextInt(moves.size()));
     }
 
 
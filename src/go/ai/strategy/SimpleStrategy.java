@@ -4,11 +4,29 @@ import go.ai.interfaces.Strategy;
 import go.model.game.Board;
 import go.model.game.Game;
 import go.model.game.Move;
+import go.model.interfaces.Color;
+import go.util.Rng;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 public class SimpleStrategy implements Strategy {
+    private final Rng random;
+
+    /**
+     * Creates a simple strategy with its own random generator.
+     */
+    public SimpleStrategy() {
+        this(new Rng());
+    }
+
+    /**
+     * Creates a simple strategy that draws its random moves from the given generator.
+     * @param random the random generator, only used by the thread that plays the strategy
+     */
+    public SimpleStrategy(Rng random) {
+        this.random = random;
+    }
+
     @Override
     public String toString() {
         return "Simple";
@@ -27,38 +45,39 @@ public class SimpleStrategy implements Strategy {
         Move nonLosingMove = findNonLosingMove(board);
         if (nonLosingMove != null) return nonLosingMove;
 
-        Move move = validMoves.stream().toList().get((int) Math.floor(Math.random() * (game.getValidMoves().size())));
+        Move move = validMoves.get(random.nextInt(validMoves.size()));
 
-        if(isBadMove(board, move)) move = validMoves.stream().toList().get((int) Math.floor(Math.random() * (game.getValidMoves().size())));
+        if(isBadMove(board, move)) move = validMoves.get(random.nextInt(validMoves.size()));
 
         return move;
     }
 
     public Boolean isBadMove(Board board, Move move) {
-        Board newBoard = board.deepCopy();
-        newBoard.setField(move.getField(),move.getColor());
         return board.numOfLiberties(move.getField()) >= 2;
     }
 
     //@ pure;
     public Move findWinningMove(Board board) {
-        for (Set<Integer> group : board.getGroups(board.getTurn().other())) {
-            Set<Integer> liberties = board.getLiberties(group);
-            if(liberties.size() == 1) {
-                return new Move(liberties.iterator().next(), board.getTurn()) ;
-            }
-        }
-        return null;
+        return findAtariMove(board, board.getTurn().other());
     }
 
     //@ pure;
     public Move findNonLosingMove(Board board) {
-        for (Set<Integer> group : board.getGroups(board.getTurn())) {
-            Set<Integer> liberties = board.getLiberties(group);
-            if(liberties.size() == 1) {
-                return new Move(board.getLiberties(group).iterator().next(), board.getTurn()) ;
-            }
+        return findAtariMove(board, board.getTurn());
+    }
+
+    /**
+     * Finds a move on the last liberty of a group of the given color.
+     * @param board the board to search
+     * @param color the color of the group in atari
+     * @return a move for the player to move on the last liberty, null if there is no group in atari
+     */
+    //@ pure;
+    private Move findAtariMove(Board board, Color color) {
+        int liberty = board.findAtariLiberty(color);
+        if (liberty == -1) {
+            return null;
         }
-        return null;
+        return new Move(liberty, board.getTurn(), board.getDim());
     }
 }
@@ -15,7 +15,7 @@ public class evaluationStrategy implements Strategy {
     public Move determineMove(Game game) {
         Player p1 = new ComputerPlayer(new NaiveStrategy(), Color.BLACK);
         Player p2 = new ComputerPlayer(new NaiveStrategy(), Color.WHITE);
-        Game newGame = new Game(p1, p2);
+        Game newGame = new Game(p1, p2, game.getBoard());
 
 
         ExecutorService executor = Executors.newSingleThreadExecutor();
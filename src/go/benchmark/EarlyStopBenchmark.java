@@ -0,0 +1,93 @@
+package go.benchmark;
+
+import go.ai.mcts.MCTS;
+import go.ai.mcts.Parallelism;
+import go.ai.mcts.SearchConfig;
+import go.ai.mcts.StopReason;
+import go.model.game.Board;
+import go.model.game.Game;
+import go.model.game.Move;
+import go.model.interfaces.Color;
+import go.model.player.ComputerPlayer;
+
+/**
+ * Measures how many playouts MCTS saves by stopping a search once its move is decided, and checks that this
+ * does not change its moves. MCTS with early stop plays a match against MCTS that always runs all its playouts,
+ * with both colors equally often. Every search of the player with early stop is repeated without early stop
+ * from the same position with the same seed, and the two moves are compared.
+ * The benchmark prints the score of early stop, which should be about 0.5, the number of searches and of moves
+ * that differed per stop reason, and the playouts both searches used. Decided and forced searches should never differ.
+ * A solved search plays the first move proven to win, or any move if all are proven to lose,
+ * so it can differ from the move the full search picks, but not in the proven outcome.
+ * All searches are single threaded with a playout limit and seeded, so a run can be repeated exactly.
+ * Run the main method with optional arguments: games (default 40) and playouts per move (default 4000).
+ */
+public class EarlyStopBenchmark {
+    /** Playouts of the searches with early stop and of the same searches without it. */
+    private static long earlyPlayouts;
+    private static long fullPlayouts;
+    private static final long[] stops = new long[StopReason.values().length];
+    private static final long[] differed = new long[StopReason.values().length];
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        long playouts = args.length > 1 ? Long.parseLong(args[1]) : 4000;
+
+        SearchConfig full = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(SearchConfig.NO_LIMIT)
+                .maxPlayouts(playouts).earlyStop(false).build();
+        SearchConfig early = full.toBuilder().earlyStop(true).build();
+        double score = 0;
+        for (int game = 0; game < games; game++) {
+            Color color = game % 2 == 0 ? Color.BLACK : Color.WHITE;
+            Color winner = play(early, full, color, game);
+            if (winner == color) {
+                score += 1;
+            } else if (winner == null) {
+                score += 0.5;
+            }
+        }
+        System.out.printf("early stop scored %.2f in %d games%n", score / games, games);
+        for (StopReason reason : StopReason.values()) {
+            if (stops[reason.ordinal()] > 0) {
+                System.out.printf("%s: %d searches, %d moves differed from the full search%n",
+                        reason, stops[reason.ordinal()], differed[reason.ordinal()]);
+            }
+        }
+        System.out.printf("early stop ran %d playouts, the full search %d, %.0f%% fewer%n",
+                earlyPlayouts, fullPlayouts, 100 * (1 - earlyPlayouts / (double) fullPlayouts));
+    }
+
+    /**
+     * Plays one game, every search with its own seed, and compares the moves of early stop with the full search.
+     * @param early the settings with early stop
+     * @param full the settings without early stop
+     * @param color the color of the player with early stop
+     * @param game the number of the game, the seeds are made from it
+     * @return the color of the winner, null if there is none
+     */
+    private static Color play(SearchConfig early, SearchConfig full, Color color, int game) {
+        Game match = new Game(new ComputerPlayer(new MCTS(early), Color.BLACK),
+                new ComputerPlayer(new MCTS(full), Color.WHITE));
+        for (int turn = 0; !match.isGameOver() && !match.getValidMoves().isEmpty(); turn++) {
+            long seed = 1000L * game + turn;
+            Board board = match.getBoard().deepCopy();
+            Move move;
+            if (board.getTurn() == color) {
+                MCTS player = new MCTS(early.toBuilder().seed(seed).build());
+                move = player.searchMove(board);
+                MCTS check = new MCTS(full.toBuilder().seed(seed).build());
+                Move expected = check.searchMove(board.deepCopy());
+                stops[player.getStopReason().ordinal()]++;
+                earlyPlayouts += player.getNumOfPlayouts();
+                fullPlayouts += check.getNumOfPlayouts();
+                if (move.getField() != expected.getField()) {
+                    differed[player.getStopReason().ordinal()]++;
+                }
+            } else {
+                move = new MCTS(full.toBuilder().seed(seed + 500).build()).searchMove(board);
+            }
+            match.doMove(move);
+        }
+        return match.getWinner();
+    }
+}
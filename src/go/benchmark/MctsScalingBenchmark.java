@@ -0,0 +1,95 @@
+package go.benchmark;
+
+import go.ai.mcts.MCTS;
+import go.ai.mcts.Parallelism;
+import go.model.game.Board;
+import go.model.game.Game;
+import go.model.interfaces.Color;
+import go.model.player.ComputerPlayer;
+
+/**
+ * Measures how parallel MCTS scales with the number of threads, for every kind of parallelism.
+ * For 1, 2, 4, ... up to the maximum number of threads it reports the playouts per second
+ * of a search from the starting position, over the time the search took, which is shorter than the time per search
+ * if it stopped early, and the score of matches against single threaded MCTS
+ * with the same time per move, playing both colors equally often.
+ * For leaf parallelism it also shows how the playouts per second change with the batch size.
+ * Run the main method with optional arguments: maximum threads (default all cores),
+ * seconds per search (default 2), games per thread count (default 4) and milliseconds per match move (default 200).
+ */
+public class MctsScalingBenchmark {
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long moveTime = args.length > 3 ? Long.parseLong(args[3]) : 200;
+
+        for (Parallelism parallelism : Parallelism.values()) {
+            System.out.println(parallelism + " parallel");
+            System.out.println("threads\tplayouts/s\tspeedup\tscore vs 1 thread");
+            double base = 0;
+            for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+                MCTS mcts = new MCTS(threads, seconds * 1000L, parallelism);
+                mcts.searchMove(new Board());
+                double rate = mcts.getNumOfPlayouts() * 1000.0 / Math.max(1, mcts.getElapsed());
+                if (threads == 1) {
+                    base = rate;
+                }
+                double score = threads == 1 ? 0.5 : match(threads, parallelism, games, moveTime);
+                System.out.printf("%d\t%.0f\t\t%.2f\t%.2f%n", threads, rate, rate / base, score);
+                if (threads == maxThreads) {
+                    break;
+                }
+            }
+        }
+
+        System.out.println("LEAF parallel with " + maxThreads + " threads");
+        System.out.println("batch\tplayouts/s");
+        for (int batch = 1; batch <= 64 * maxThreads; batch *= 4) {
+            MCTS mcts = new MCTS(maxThreads, seconds * 1000L, Parallelism.LEAF, batch);
+            mcts.searchMove(new Board());
+            System.out.printf("%d\t%.0f%n", batch, mcts.getNumOfPlayouts() * 1000.0 / Math.max(1, mcts.getElapsed()));
+        }
+    }
+
+    /**
+     * Plays games between MCTS with the given number of threads and single threaded MCTS.
+     * @param threads the number of threads of the first player
+     * @param parallelism the kind of parallelism of the first player
+     * @param games the number of games, half of them with each color
+     * @param moveTime the time per move in milliseconds
+     * @return the score of the multi threaded player, a win counts 1 and a game without winner 0.5
+     */
+    private static double match(int threads, Parallelism parallelism, int games, long moveTime) {
+        double score = 0;
+        for (int game = 0; game < games; game++) {
+            MCTS parallel = new MCTS(threads, moveTime, parallelism);
+            MCTS single = new MCTS(1, moveTime);
+            Color parallelColor = game % 2 == 0 ? Color.BLACK : Color.WHITE;
+            Color winner = play(parallelColor == Color.BLACK ? parallel : single,
+                    parallelColor == Color.BLACK ? single : parallel);
+            if (winner == parallelColor) {
+                score += 1;
+            } else if (winner == null) {
+                score += 0.5;
+            }
+        }
+        return score / games;
+    }
+
+    /**
+     * Plays one game between two searches.
+     * @param black the player of black
+     * @param white the player of white
+     * @return the color of the winner, null if there is none
+     */
+    static Color play(MCTS black, MCTS white) {
+        Game game = new Game(new ComputerPlayer(black, Color.BLACK), new ComputerPlayer(white, Color.WHITE));
+        while (!game.isGameOver() && !game.getValidMoves().isEmpty()) {
+            MCTS player = game.getBoard().getTurn() == Color.BLACK ? black : white;
+            game.doMove(player.searchMove(game.getBoard()));
+        }
+        return game.getWinner();
+    }
+}
@@ -0,0 +1,90 @@
+package go.benchmark;
+
+import go.ai.mcts.MCTS;
+import go.ai.mcts.Parallelism;
+import go.ai.mcts.SearchConfig;
+import go.ai.playout.PatternTable;
+import go.ai.playout.PlayoutEngine;
+import go.model.game.Board;
+import go.model.interfaces.Color;
+import go.util.Rng;
+
+/**
+ * Weighs the speed of playouts with the 3x3 pattern table against the quality they add to MCTS.
+ * First it measures the playouts per second of the engine from the starting position,
+ * with uniform random moves and with moves weighted by the patterns.
+ * Then MCTS with pattern playouts plays a match against MCTS with uniform playouts,
+ * once with the same number of playouts per move, which shows what the patterns are worth per playout,
+ * and once with the same time per move, which shows whether that is worth the slower playouts.
+ * Both colors are played equally often and the playout matches are seeded, so they can be repeated exactly.
+ * Run the main method with optional arguments: seconds per speed measurement (default 3),
+ * playouts per move (default 2000), games per match (default 20) and milliseconds per move (default 200).
+ */
+public class PatternPlayoutBenchmark {
+    private static final int WARMUP_SECONDS = 2;
+
+    public static void main(String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int playouts = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long moveTime = args.length > 3 ? Long.parseLong(args[3]) : 200;
+
+        measure(null, WARMUP_SECONDS);
+        measure(PatternTable.DEFAULT, WARMUP_SECONDS);
+        double uniform = measure(null, seconds);
+        double patterns = measure(PatternTable.DEFAULT, seconds);
+        System.out.printf("uniform playouts: %.0f playouts/s%n", uniform);
+        System.out.printf("pattern playouts: %.0f playouts/s, %.2fx the time per playout%n",
+                patterns, uniform / patterns);
+
+        SearchConfig equalPlayouts = SearchConfig.builder().parallelism(Parallelism.TREE)
+                .timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(playouts).build();
+        System.out.printf("patterns scored %.2f against uniform with %d playouts per move in %d games%n",
+                match(equalPlayouts, games), playouts, games);
+        SearchConfig equalTime = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(moveTime).build();
+        System.out.printf("patterns scored %.2f against uniform with %dms per move in %d games%n",
+                match(equalTime, games), moveTime, games);
+    }
+
+    /**
+     * Plays playouts from the starting position until the time is up.
+     * @param patterns the pattern table, null for uniform random moves
+     * @param seconds the time to play for in seconds
+     * @return the number of playouts per second
+     */
+    private static double measure(PatternTable patterns, int seconds) {
+        PlayoutEngine engine = new PlayoutEngine(new Rng(1), patterns);
+        Board start = new Board();
+        long begin = System.nanoTime();
+        long end = begin + seconds * 1_000_000_000L;
+        long playouts = 0;
+        while (System.nanoTime() < end) {
+            engine.playout(start);
+            playouts++;
+        }
+        return playouts * 1e9 / (System.nanoTime() - begin);
+    }
+
+    /**
+     * Plays games between MCTS with pattern playouts and MCTS with uniform playouts, each color equally often.
+     * @param config the settings of both players apart from the playout policy
+     * @param games the number of games
+     * @return the score of the player with patterns, a win counts 1 and a game without winner 0.5
+     */
+    private static double match(SearchConfig config, int games) {
+        double score = 0;
+        for (int game = 0; game < games; game++) {
+            MCTS patterns = new MCTS(config.toBuilder().playoutPatterns(true).seed(2 * game).build());
+            MCTS uniform = new MCTS(config.toBuilder().seed(2 * game + 1).build());
+            Color color = game % 2 == 0 ? Color.BLACK : Color.WHITE;
+            Color winner = MctsScalingBenchmark.play(color == Color.BLACK ? patterns : uniform,
+                    color == Color.BLACK ? uniform : patterns);
+            if (winner == color) {
+                score += 1;
+            } else if (winner == null) {
+                score += 0.5;
+            }
+        }
+        return score / games;
+    }
+}
@@ -0,0 +1,106 @@
+package go.benchmark;
+
+import go.ai.playout.PlayoutEngine;
+import go.ai.strategy.SimpleStrategy;
+import go.model.game.Board;
+import go.model.game.Game;
+import go.model.interfaces.Color;
+import go.model.player.ComputerPlayer;
+
+/**
+ * Measures the playout throughput of the engine.
+ * A playout is a game between two players using the simple strategy,
+ * played from the starting position until the game is over,
+ * the same way MCTS simulates its random games.
+ * The same playouts are also measured with the playout engine MCTS uses, which plays them on a scratch board.
+ * It also measures move ordering with getValidMovesSmart, which is dominated by neighbor lookups.
+ * Run the main method, optionally with the number of seconds to measure as argument.
+ */
+public class PlayoutBenchmark {
+    private static final int WARMUP_SECONDS = 2;
+
+    public static void main(String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        System.out.println("Warming up for " + WARMUP_SECONDS + "s");
+        run(WARMUP_SECONDS * 1000L);
+        runEngine(WARMUP_SECONDS * 1000L);
+        runOrdering(WARMUP_SECONDS * 1000L);
+
+        long start = System.nanoTime();
+        long playouts = run(seconds * 1000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d playouts in %.2fs: %.0f playouts/s%n", playouts, elapsed, playouts / elapsed);
+
+        start = System.nanoTime();
+        playouts = runEngine(seconds * 1000L);
+        elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d engine playouts in %.2fs: %.0f playouts/s%n", playouts, elapsed, playouts / elapsed);
+
+        start = System.nanoTime();
+        long orderings = runOrdering(seconds * 1000L);
+        elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d move orderings in %.2fs: %.0f orderings/s%n", orderings, elapsed, orderings / elapsed);
+    }
+
+    /**
+     * Plays playouts until the time is up.
+     * @param millis the time to play for in milliseconds
+     * @return the number of finished playouts
+     */
+    private static long run(long millis) {
+        ComputerPlayer p1 = new ComputerPlayer(new SimpleStrategy(), Color.BLACK);
+        ComputerPlayer p2 = new ComputerPlayer(new SimpleStrategy(), Color.WHITE);
+        long end = System.currentTimeMillis() + millis;
+        long playouts = 0;
+
+        while (System.currentTimeMillis() < end) {
+            Game game = new Game(p1, p2);
+            while (!game.isGameOver() && !game.getValidMoves().isEmpty()) {
+                game.doMove(game.getTurn().determineMove(game));
+            }
+            playouts++;
+        }
+        return playouts;
+    }
+
+    /**
+     * Plays playouts with the playout engine until the time is up.
+     * @param millis the time to play for in milliseconds
+     * @return the number of finished playouts
+     */
+    private static long runEngine(long millis) {
+        PlayoutEngine engine = new PlayoutEngine();
+        Board start = new Board();
+        long end = System.currentTimeMillis() + millis;
+        long playouts = 0;
+
+        while (System.currentTimeMillis() < end) {
+            engine.playout(start);
+            playouts++;
+        }
+        return playouts;
+    }
+
+    /**
+     * Orders the moves of every position of a playout with getValidMovesSmart until the time is up.
+     * @param millis the time to play for in milliseconds
+     * @return the number of orderings done
+     */
+    private static long runOrdering(long millis) {
+        ComputerPlayer p1 = new ComputerPlayer(new SimpleStrategy(), Color.BLACK);
+        ComputerPlayer p2 = new ComputerPlayer(new SimpleStrategy(), Color.WHITE);
+        long end = System.currentTimeMillis() + millis;
+        long orderings = 0;
+
+        while (System.currentTimeMillis() < end) {
+            Game game = new Game(p1, p2);
+            while (!game.isGameOver() && !game.getValidMoves().isEmpty()) {
+                game.getValidMovesSmart();
+                orderings++;
+                game.doMove(game.getTurn().determineMove(game));
+            }
+        }
+        return orderings;
+    }
+}
@@ -0,0 +1,63 @@
+package go.benchmark;
+
+import go.ai.mcts.MCTS;
+import go.ai.mcts.Parallelism;
+import go.ai.mcts.SearchConfig;
+import go.model.game.Board;
+
+/**
+ * Measures how a node budget keeps the MCTS tree small and what pruning costs.
+ * Each search runs single threaded from the starting position with the same playout limit and seed,
+ * first without a node budget, then with budgets of 2000 down to 125 nodes.
+ * For every search it prints the playouts per second, the nodes that are left, the estimated and the measured heap
+ * of the tree, the number of prune events and the number of pruned nodes.
+ * The measured heap is taken by collecting the garbage before and after releasing the tree,
+ * run with a fixed heap size (for example -Xms1g -Xmx1g) for stable numbers.
+ * Run the main method, optionally with the number of playouts per search as argument (default 200000).
+ */
+public class PruningBenchmark {
+
+    public static void main(String[] args) {
+        long playouts = args.length > 0 ? Long.parseLong(args[0]) : 200000;
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(SearchConfig.NO_LIMIT)
+                .maxPlayouts(playouts).earlyStop(false).seed(1).build();
+
+        System.out.println("budget\tplayouts/s\tnodes\testimated KB\tmeasured KB\tprune events\tpruned nodes");
+        run(config);
+        for (long budget = 2000; budget >= 125; budget /= 2) {
+            run(config.toBuilder().nodeBudget(budget).build());
+        }
+    }
+
+    /**
+     * Runs one search and prints its row.
+     * @param config the settings of the search
+     */
+    private static void run(SearchConfig config) {
+        MCTS mcts = new MCTS(config);
+        mcts.searchMove(new Board());
+        double rate = mcts.getNumOfPlayouts() * 1000.0 / Math.max(1, mcts.getElapsed());
+        long nodes = mcts.getNumOfNodes();
+        long estimated = mcts.getNumOfBytes();
+        long events = mcts.getNumOfPruneEvents();
+        long pruned = mcts.getNumOfPrunedNodes();
+        long used = usedMemory();
+        mcts = null;
+        long bytes = used - usedMemory();
+        System.out.printf("%s\t%.0f\t\t%d\t%d\t\t%d\t\t%d\t\t%d%n",
+                config.getNodeBudget() == SearchConfig.NO_LIMIT ? "none" : config.getNodeBudget(),
+                rate, nodes, estimated / 1024, bytes / 1024, events, pruned);
+    }
+
+    /**
+     * Returns the heap in use after collecting the garbage.
+     * @return the used heap in bytes
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
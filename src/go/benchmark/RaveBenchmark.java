@@ -0,0 +1,69 @@
+package go.benchmark;
+
+import go.ai.mcts.MCTS;
+import go.ai.mcts.Parallelism;
+import go.ai.mcts.SearchConfig;
+import go.model.interfaces.Color;
+
+/**
+ * Measures how many playouts MCTS with RAVE needs to play as strong as plain UCT with a fixed number of playouts.
+ * Plain UCT gets the target number of playouts per move, RAVE gets 1/8, 1/4, 1/2 and 1 times as many,
+ * and for each budget they play a match with both colors equally often. The smallest budget at which
+ * RAVE scores at least half of the points is its number of playouts to reach the strength of plain UCT.
+ * Both players search single threaded with a playout limit only and every game has its own seeds,
+ * so the result does not depend on the machine and a run can be repeated exactly.
+ * Run the main method with optional arguments: target playouts (default 4000), games per budget (default 20)
+ * and RAVE equivalence (default MCTS.RAVE_EQUIVALENCE, 1000).
+ */
+public class RaveBenchmark {
+
+    public static void main(String[] args) {
+        int target = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int equivalence = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        SearchConfig uct = SearchConfig.builder().parallelism(Parallelism.TREE)
+                .timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(target).build();
+        System.out.println("UCT with " + target + " playouts against RAVE with equivalence " + equivalence);
+        System.out.println("RAVE playouts\tscore");
+        int reached = -1;
+        for (int playouts = target / 8; playouts <= target; playouts *= 2) {
+            SearchConfig rave = uct.toBuilder().maxPlayouts(playouts).raveEquivalence(equivalence).build();
+            double score = match(rave, uct, games);
+            System.out.printf("%d\t\t%.2f%n", playouts, score);
+            if (reached == -1 && score >= 0.5) {
+                reached = playouts;
+            }
+        }
+        if (reached == -1) {
+            System.out.println("RAVE did not reach the strength of UCT with up to " + target + " playouts");
+        } else {
+            System.out.printf("RAVE reached the strength of UCT with %d playouts, %.1fx fewer%n",
+                    reached, target / (double) reached);
+        }
+    }
+
+    /**
+     * Plays games between two configurations, each color equally often.
+     * @param config the config of the player that is scored
+     * @param opponent the config of its opponent
+     * @param games the number of games
+     * @return the score of the first player, a win counts 1 and a game without winner 0.5
+     */
+    private static double match(SearchConfig config, SearchConfig opponent, int games) {
+        double score = 0;
+        for (int game = 0; game < games; game++) {
+            MCTS player = new MCTS(config.toBuilder().seed(2 * game).build());
+            MCTS other = new MCTS(opponent.toBuilder().seed(2 * game + 1).build());
+            Color color = game % 2 == 0 ? Color.BLACK : Color.WHITE;
+            Color winner = MctsScalingBenchmark.play(color == Color.BLACK ? player : other,
+                    color == Color.BLACK ? other : player);
+            if (winner == color) {
+                score += 1;
+            } else if (winner == null) {
+                score += 0.5;
+            }
+        }
+        return score / games;
+    }
+}
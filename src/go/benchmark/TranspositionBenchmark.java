@@ -0,0 +1,63 @@
+package go.benchmark;
+
+import go.ai.mcts.MCTS;
+import go.ai.mcts.Parallelism;
+import go.ai.mcts.SearchConfig;
+import go.model.game.Board;
+
+/**
+ * Compares the MCTS tree with the graph that shares the nodes of equal positions through a transposition table.
+ * Each search runs single threaded from the starting position with the same playout limit and seed,
+ * first without a table, then with tables of 256 up to 16384 positions.
+ * For every search it prints the number of nodes,
+ * which is the number of distinct positions in the graph, the playouts per node, the transpositions found,
+ * the evicted positions and the heap the graph takes, measured by collecting the garbage before and after releasing it.
+ * Heap measurements are rough, run with a fixed heap size (for example -Xms2g -Xmx2g) for stable numbers.
+ * Run the main method, optionally with the number of playouts per search as argument (default 200000).
+ */
+public class TranspositionBenchmark {
+
+    public static void main(String[] args) {
+        long playouts = args.length > 0 ? Long.parseLong(args[0]) : 200000;
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE)
+                .timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(playouts).seed(1).build();
+
+        System.out.println("capacity\tplayouts\tnodes\tplayouts/node\ttranspositions\tevicted\tKB");
+        run(config);
+        for (int capacity = 1 << 8; capacity <= 1 << 14; capacity *= 4) {
+            run(config.toBuilder().transpositionCapacity(capacity).build());
+        }
+    }
+
+    /**
+     * Runs one search and prints its row.
+     * @param config the settings of the search
+     */
+    private static void run(SearchConfig config) {
+        MCTS mcts = new MCTS(config);
+        mcts.searchMove(new Board());
+        long playouts = mcts.getNumOfPlayouts();
+        long nodes = mcts.getNumOfNodes();
+        long transpositions = mcts.getNumOfTranspositions();
+        long evictions = mcts.getNumOfEvictions();
+        // the heap the graph takes is measured by releasing it, the heap before the search also holds older garbage
+        long used = usedMemory();
+        mcts = null;
+        long bytes = used - usedMemory();
+        System.out.printf("%s\t\t%d\t\t%d\t%.1f\t\t%d\t\t%d\t%d%n",
+                config.getTranspositionCapacity() == 0 ? "none" : config.getTranspositionCapacity(),
+                playouts, nodes, playouts / (double) nodes, transpositions, evictions, bytes / 1024);
+    }
+
+    /**
+     * Returns the heap in use after collecting the garbage.
+     * @return the used heap in bytes
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,58 @@
+package go.benchmark;
+
+import go.ai.mcts.ArenaMCTS;
+import go.ai.mcts.MCTS;
+import go.ai.mcts.NodeArena;
+import go.model.game.Board;
+
+/**
+ * Compares the memory per node of the MCTS tree of Node objects with the tree in a NodeArena.
+ * Both searches run single threaded from the starting position for the same time and keep their tree afterwards,
+ * the heap that is still in use after a garbage collection is divided by the number of nodes.
+ * Heap measurements are rough, run with a fixed heap size (for example -Xms2g -Xmx2g) for stable numbers.
+ * Run the main method, optionally with the number of seconds per search as argument.
+ */
+public class TreeMemoryBenchmark {
+
+    public static void main(String[] args) {
+        long time = (args.length > 0 ? Integer.parseInt(args[0]) : 5) * 1000L;
+
+        long base = usedMemory();
+        MCTS mcts = new MCTS(1, time);
+        mcts.searchMove(new Board());
+        long bytes = usedMemory() - base;
+        report("Node tree", mcts.getNumOfPlayouts(), mcts.getNumOfNodes(), bytes);
+        mcts = null;
+
+        base = usedMemory();
+        ArenaMCTS arena = new ArenaMCTS(time);
+        arena.searchMove(new Board());
+        bytes = usedMemory() - base;
+        report("Arena tree", arena.getNumOfPlayouts(), arena.getNumOfNodes(), bytes);
+        System.out.println("Arena arrays: " + NodeArena.BYTES_PER_NODE + " bytes per node");
+    }
+
+    /**
+     * Prints the memory use of a tree.
+     * @param name the name of the tree
+     * @param playouts the number of playouts of the search
+     * @param nodes the number of nodes of the tree
+     * @param bytes the heap used by the tree
+     */
+    private static void report(String name, long playouts, long nodes, long bytes) {
+        System.out.printf("%s: %d playouts, %d nodes, %d KB, %.1f bytes per node%n",
+                name, playouts, nodes, bytes / 1024, bytes / (double) nodes);
+    }
+
+    /**
+     * Returns the heap in use after collecting the garbage.
+     * @return the used heap in bytes
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
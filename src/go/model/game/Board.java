@@ -3,33 +3,141 @@ package go.model.game;
 import go.model.interfaces.Color;
 import go.util.ConsoleColors;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 /**
- * Represents the board of a game of Go with a predetermined dimension.
+ * Represents the board of a game of Go with a dimension chosen when it is created.
+ * The stones are stored as bitboards: one bit mask per color where bit i is set
+ * if field i holds a stone of that color. A mask takes as many longs as the board needs,
+ * so boards up to 8x8 use a single word and larger boards use multiple words.
+ * Neighbor, liberty and group queries are done with shifts and masks on these words.
+ * On top of that the groups are tracked incrementally with a union-find
+ * structure, so group, liberty and atari queries do not need a flood fill.
+ * Every position also has an incrementally updated 64-bit Zobrist hash.
+ * Stones placed with play can be taken back with unplay: every value play overwrites
+ * is pushed on a trail and written back on unplay, so search code can walk a tree on one board.
  */
 public class Board {
+    /** Dimension of a board created without specifying one. */
     public static final int DIM = 7;
-    private List<Color> fields;
+    /** Smallest supported dimension, the starting position needs a 3x3 board. */
+    public static final int MIN_DIM = 3;
+    /** Largest supported dimension. */
+    public static final int MAX_DIM = 19;
 
-    //TODO hyper optimise methods for time and disregard memory
+    /** Precomputed masks and neighbor tables for every supported dimension. */
+    private static final Geometry[] GEOMETRIES = new Geometry[MAX_DIM + 1];
+
+    static {
+        for (int dim = MIN_DIM; dim <= MAX_DIM; dim++) {
+            GEOMETRIES[dim] = new Geometry(dim);
+        }
+    }
+
+    /** Random key per color and field, the hash of a position is the xor of the keys of its stones. */
+    private static final long[][] ZOBRIST = new long[2][MAX_DIM * MAX_DIM];
+
+    static {
+        // fixed seed so hashes are the same in every run
+        Random random = new Random(0x5EED_60L);
+        for (long[] keys : ZOBRIST) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+    }
+
+    private final Geometry geometry;
+    private final int dim;
+    /** Number of longs in a bit mask of this board. */
+    private final int words;
+
+    private final long[] black;
+    private final long[] white;
+    /** Number of black stones on the board. */
+    private int blackStones;
+    /** Number of white stones on the board. */
+    private int whiteStones;
+    /** Color of the next player, black when both colors have the same number of stones. */
+    private Color turn;
+
+    /** Union-find parent of every occupied field, a field is a root if it is its own parent. */
+    private final int[] parent;
+    /** Number of stones of the group, only valid at the root of the group. */
+    private final int[] groupSize;
+    /** Stones of the group as a mask of words longs at index root * words, only valid at the root. */
+    private final long[] groupStones;
+    /** Liberties of the group as a mask of words longs at index root * words, only valid at the root. */
+    private final long[] groupLiberties;
+    /** Number of groups that have no liberties left. */
+    private int capturedGroups;
+    /** Zobrist hash of the current position. */
+    private long hash;
+
+    /** Kinds of values saved on the trail, stored in the upper bits of a trail slot. */
+    private static final int TRAIL_PARENT = 0;
+    private static final int TRAIL_GROUP_SIZE = 1;
+    private static final int TRAIL_GROUP_STONES = 2;
+    private static final int TRAIL_GROUP_LIBERTIES = 3;
+    private static final int TRAIL_CAPTURED = 4;
+    private static final int TRAIL_KIND_SHIFT = 24;
+    private static final int TRAIL_INDEX_MASK = (1 << TRAIL_KIND_SHIFT) - 1;
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+
+    /** Kind and index of every value overwritten by the plays that can still be undone. */
+    private int[] trailSlots = NO_INTS;
+    /** Old value of every slot in trailSlots. */
+    private long[] trailValues = NO_LONGS;
+    private int trailSize;
+    /** Field of every play that can still be undone. */
+    private int[] plays = NO_INTS;
+    /** Size of the trail before every play. */
+    private int[] playMarks = NO_INTS;
+    private int numOfPlays;
 
     //TODO add JML invariants
 
     //TODO add asserts for defined conditions
 
     /**
-     * Creates a board with the starting configuration.
+     * Creates a board of the default dimension with the starting configuration.
      * 4 stones in a checkerboard pattern
      */
     //ensures that the setup happens, rest of the fields are empty (JML)
     public Board() {
-        this.fields = new ArrayList<>();
-        for (int i = 0; i < DIM * DIM; i++) {
-            fields.add(Color.EMPTY);
+        this(DIM);
+    }
+
+    /**
+     * Creates a board of the given dimension with the starting configuration.
+     * 4 stones in a checkerboard pattern
+     * @param dim the number of rows and columns of the board
+     * @throws IllegalArgumentException if the dimension is not between MIN_DIM and MAX_DIM
+     */
+    //@requires MIN_DIM <= dim && dim <= MAX_DIM;
+    //@ensures getDim() == dim;
+    public Board(int dim) {
+        if (dim < MIN_DIM || dim > MAX_DIM) {
+            throw new IllegalArgumentException("Board dimension must be between " + MIN_DIM + " and " +
+                    MAX_DIM + ", got " + dim);
         }
+        this.geometry = GEOMETRIES[dim];
+        this.dim = dim;
+        this.words = geometry.words;
+        this.black = new long[words];
+        this.white = new long[words];
+        this.parent = new int[geometry.size];
+        this.groupSize = new int[geometry.size];
+        this.groupStones = new long[geometry.size * words];
+        this.groupLiberties = new long[geometry.size * words];
+        this.capturedGroups = 0;
+        this.hash = 0L;
+        this.turn = Color.BLACK;
         setUp();
     }
 
@@ -39,10 +147,29 @@ public class Board {
      */
     //ensures that the fields are the color they need to be
     private void setUp() {
-        fields.set(indexOf((DIM-1)/2,(DIM-1)/2), Color.BLACK);
-        fields.set(indexOf((DIM-1)/2-1,(DIM-1)/2), Color.WHITE);
-        fields.set(indexOf((DIM-1)/2-1,(DIM-1)/2-1), Color.BLACK);
-        fields.set(indexOf((DIM-1)/2,(DIM-1)/2-1), Color.WHITE);
+        setField(indexOf((dim-1)/2,(dim-1)/2), Color.BLACK);
+        setField(indexOf((dim-1)/2-1,(dim-1)/2), Color.WHITE);
+        setField(indexOf((dim-1)/2-1,(dim-1)/2-1), Color.BLACK);
+        setField(indexOf((dim-1)/2,(dim-1)/2-1), Color.WHITE);
+    }
+
+    /**
+     * Returns the dimension of the board.
+     * @return the number of rows (and columns) of the board
+     */
+    //@pure
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * Returns the number of fields on the board.
+     * @return the dimension squared
+     */
+    //@ensures \result == getDim() * getDim();
+    //@pure
+    public int getNumOfFields() {
+        return geometry.size;
     }
 
     /**
@@ -52,10 +179,37 @@ public class Board {
     //TODO ensures (result) == condition
     //@pure
     public Boolean isGameOver() {
-        for (int i = 0; i < Board.DIM * Board.DIM; i++) {
-            if (!isEmpty(i) && numOfLiberties(getGroup(i)) == 0) {
+        return capturedGroups > 0;
+    }
+
+    /**
+     * Checks if the game is over using flood fills instead of the tracked groups.
+     * Reference implementation of isGameOver.
+     * @return true if there is at least one group enclosed.
+     */
+    //@ensures \result == isGameOver();
+    //@pure
+    boolean floodIsGameOver() {
+        return hasCapturedGroup(black) || hasCapturedGroup(white);
+    }
+
+    /**
+     * Checks if any group within the given stones has no liberties left.
+     * @param stones the stones of one color
+     * @return true if at least one of the groups has no liberties
+     */
+    //@pure
+    private boolean hasCapturedGroup(long[] stones) {
+        long[] remaining = stones.clone();
+        long[] empty = empty();
+        while (!isZero(remaining, 0)) {
+            long[] group = flood(firstField(remaining), stones);
+            long[] liberties = adjacent(group);
+            and(liberties, empty);
+            if (isZero(liberties, 0)) {
                 return true;
             }
+            andNot(remaining, group);
         }
         return false;
     }
@@ -70,7 +224,22 @@ public class Board {
     public Color getTurn() {
         //TODO if isGameOver then return null
         //TODO modify this method to also check for White status and return null if neither
-        return getFields(Color.BLACK).size() == getFields(Color.WHITE).size() ? Color.BLACK : Color.WHITE;
+        return turn;
+    }
+
+    /**
+     * Returns the number of fields of a color, kept up to date on every change of the board.
+     * @param color the color to count, EMPTY counts the empty fields
+     * @return the number of fields with the given color
+     */
+    //@ensures \result == getFields(color).size();
+    //@pure
+    public int getStoneCount(Color color) {
+        return switch (color) {
+            case BLACK -> blackStones;
+            case WHITE -> whiteStones;
+            case EMPTY -> geometry.size - blackStones - whiteStones;
+        };
     }
 
     /**
@@ -84,7 +253,7 @@ public class Board {
     //@ensures isValidField(\result);
     //@pure
     public int indexOf(int x, int y) {
-        return x * DIM + y;
+        return x * dim + y;
     }
 
     /**
@@ -98,7 +267,7 @@ public class Board {
     //TODO modify for all columns
     //@pure
     public int getRow(int field) {
-        return field / DIM;
+        return field / dim;
     }
 
     /**
@@ -112,37 +281,392 @@ public class Board {
     //TODO modify for all rows
     //@pure
     public int getCol(int field) {
-       return field % DIM;
+       return field % dim;
     }
 
     /**
      * Private constructor for the deepcopy method.
-     * Initializes a Board with the given fields.
-     * @param fields copies the fields array into the new Board
+     * Initializes a Board with the stones and groups of the given board.
+     * @param board the board to copy
      */
-    //@ensures this.fields == fields;
-    private Board(List<Color> fields) {
-        this.fields = new ArrayList<>(fields);
+    //@ensures this.equals(board);
+    private Board(Board board) {
+        this.geometry = board.geometry;
+        this.dim = board.dim;
+        this.words = board.words;
+        this.black = board.black.clone();
+        this.white = board.white.clone();
+        this.parent = board.parent.clone();
+        this.groupSize = board.groupSize.clone();
+        this.groupStones = board.groupStones.clone();
+        this.groupLiberties = board.groupLiberties.clone();
+        this.capturedGroups = board.capturedGroups;
+        this.hash = board.hash;
+        this.blackStones = board.blackStones;
+        this.whiteStones = board.whiteStones;
+        this.turn = board.turn;
+    }
+
+    /**
+     * Overwrites this board with the position of another board of the same dimension, without allocating.
+     * Used to reset a scratch board to a position. The undo history of this board is cleared.
+     * @param board the board to copy
+     * @throws IllegalArgumentException if the boards have a different dimension
+     */
+    //@requires board.getDim() == getDim();
+    //@ensures this.equals(board) && getNumOfPlays() == 0;
+    public void copyFrom(Board board) {
+        if (board.dim != dim) {
+            throw new IllegalArgumentException("Cannot copy a " + board.dim + "x" + board.dim +
+                    " board onto a " + dim + "x" + dim + " board");
+        }
+        System.arraycopy(board.black, 0, black, 0, words);
+        System.arraycopy(board.white, 0, white, 0, words);
+        System.arraycopy(board.parent, 0, parent, 0, parent.length);
+        System.arraycopy(board.groupSize, 0, groupSize, 0, groupSize.length);
+        System.arraycopy(board.groupStones, 0, groupStones, 0, groupStones.length);
+        System.arraycopy(board.groupLiberties, 0, groupLiberties, 0, groupLiberties.length);
+        this.capturedGroups = board.capturedGroups;
+        this.hash = board.hash;
+        this.blackStones = board.blackStones;
+        this.whiteStones = board.whiteStones;
+        this.turn = board.turn;
+        this.trailSize = 0;
+        this.numOfPlays = 0;
     }
 
     /**
      * Deepcopy method.
      * @return a copy of the board.
      */
-    //@ensures this.fields == \result.fields;
+    //@ensures this.equals(\result);
     public Board deepCopy() {
-        return new Board(new ArrayList<>(this.fields));
+        return new Board(this);
     }
 
     /**
      * Sets the field to a color.
+     * Placing a stone on an empty field updates the groups incrementally,
+     * removing or replacing a stone rebuilds them.
      * @param field the index of the tile
      * @param color the color that the tile should be
      */
     //@requires isValidField(field);
-    //@ensures fields.get(field) == color;
+    //@ensures getColor(field) == color;
     public void setField(int field, Color color) {
-        this.fields.set(field, color);
+        // the trail only describes the changes made by play
+        trailSize = 0;
+        numOfPlays = 0;
+
+        int word = field >>> 6;
+        long bit = 1L << field;
+        boolean wasEmpty = ((black[word] | white[word]) & bit) == 0;
+        Color old = getColor(field);
+        this.hash ^= zobrist(field, old) ^ zobrist(field, color);
+        this.black[word] &= ~bit;
+        this.white[word] &= ~bit;
+        if (old == Color.BLACK) {
+            this.blackStones--;
+        } else if (old == Color.WHITE) {
+            this.whiteStones--;
+        }
+        if (color == Color.BLACK) {
+            this.black[word] |= bit;
+            this.blackStones++;
+        } else if (color == Color.WHITE) {
+            this.white[word] |= bit;
+            this.whiteStones++;
+        }
+        this.turn = blackStones == whiteStones ? Color.BLACK : Color.WHITE;
+
+        if (wasEmpty && color != Color.EMPTY) {
+            placeStone(field, color, false);
+        } else if (!wasEmpty) {
+            rebuildGroups();
+        }
+    }
+
+    /**
+     * Places a stone on an empty field so that it can be taken back with unplay.
+     * @param field the index of the field
+     * @param color the color of the stone
+     * @throws IllegalArgumentException if the field is not empty or the color is EMPTY
+     */
+    //@requires isValidField(field) && isEmpty(field) && color != Color.EMPTY;
+    //@ensures getColor(field) == color && getNumOfPlays() == \old(getNumOfPlays()) + 1;
+    public void play(int field, Color color) {
+        if (color == Color.EMPTY || !isEmpty(field)) {
+            throw new IllegalArgumentException("Cannot play " + color + " on field " + field);
+        }
+        if (numOfPlays == plays.length) {
+            plays = Arrays.copyOf(plays, Math.max(16, numOfPlays * 2));
+            playMarks = Arrays.copyOf(playMarks, plays.length);
+        }
+        plays[numOfPlays] = field;
+        playMarks[numOfPlays] = trailSize;
+        numOfPlays++;
+        save(TRAIL_CAPTURED, 0, capturedGroups);
+
+        int word = field >>> 6;
+        long bit = 1L << field;
+        this.hash ^= zobrist(field, color);
+        if (color == Color.BLACK) {
+            this.black[word] |= bit;
+            this.blackStones++;
+        } else {
+            this.white[word] |= bit;
+            this.whiteStones++;
+        }
+        this.turn = blackStones == whiteStones ? Color.BLACK : Color.WHITE;
+        placeStone(field, color, true);
+    }
+
+    /**
+     * Takes back the last stone placed with play, restoring the groups, counters and hash.
+     * @throws IllegalStateException if there is no play to undo
+     */
+    //@requires getNumOfPlays() > 0;
+    //@ensures getNumOfPlays() == \old(getNumOfPlays()) - 1;
+    public void unplay() {
+        if (numOfPlays == 0) {
+            throw new IllegalStateException("There is no move to undo");
+        }
+        numOfPlays--;
+        int field = plays[numOfPlays];
+        int mark = playMarks[numOfPlays];
+        while (trailSize > mark) {
+            trailSize--;
+            restore(trailSlots[trailSize], trailValues[trailSize]);
+        }
+
+        int word = field >>> 6;
+        long bit = 1L << field;
+        this.hash ^= zobrist(field, getColor(field));
+        if ((black[word] & bit) != 0) {
+            this.black[word] &= ~bit;
+            this.blackStones--;
+        } else {
+            this.white[word] &= ~bit;
+            this.whiteStones--;
+        }
+        this.turn = blackStones == whiteStones ? Color.BLACK : Color.WHITE;
+    }
+
+    /**
+     * Returns the number of plays that can be undone with unplay.
+     * setField and deepCopy start a new history.
+     * @return the number of plays on the undo stack
+     */
+    //@pure
+    public int getNumOfPlays() {
+        return numOfPlays;
+    }
+
+    /**
+     * Pushes the old value of a slot on the trail.
+     * @param kind the kind of the value, one of the TRAIL constants
+     * @param index the index of the value in its array
+     * @param value the value before it is overwritten
+     */
+    private void save(int kind, int index, long value) {
+        if (trailSize == trailSlots.length) {
+            trailSlots = Arrays.copyOf(trailSlots, Math.max(64, trailSize * 2));
+            trailValues = Arrays.copyOf(trailValues, trailSlots.length);
+        }
+        trailSlots[trailSize] = kind << TRAIL_KIND_SHIFT | index;
+        trailValues[trailSize] = value;
+        trailSize++;
+    }
+
+    /**
+     * Writes an old value from the trail back.
+     * @param slot the kind and index of the value
+     * @param value the old value
+     */
+    private void restore(int slot, long value) {
+        int index = slot & TRAIL_INDEX_MASK;
+        switch (slot >>> TRAIL_KIND_SHIFT) {
+            case TRAIL_PARENT -> parent[index] = (int) value;
+            case TRAIL_GROUP_SIZE -> groupSize[index] = (int) value;
+            case TRAIL_GROUP_STONES -> groupStones[index] = value;
+            case TRAIL_GROUP_LIBERTIES -> groupLiberties[index] = value;
+            default -> capturedGroups = (int) value;
+        }
+    }
+
+    /**
+     * Returns the Zobrist key of a stone.
+     * @param field the index of the field
+     * @param color the color of the stone
+     * @return the key of the stone, 0 for an empty field
+     */
+    //@pure
+    private static long zobrist(int field, Color color) {
+        return switch (color) {
+            case BLACK -> ZOBRIST[0][field];
+            case WHITE -> ZOBRIST[1][field];
+            case EMPTY -> 0L;
+        };
+    }
+
+    /**
+     * Returns the 64-bit Zobrist hash of the position.
+     * Equal positions have equal hashes, regardless of the order the stones were placed in.
+     * @return the hash of the position
+     */
+    //@pure
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Adds a newly placed stone to the groups.
+     * The stone is merged with the friendly groups next to it and removed
+     * from the liberties of all groups next to it.
+     * The data of the new stone itself is not saved, it is unused again once the stone is taken back.
+     * @param field the index of the new stone
+     * @param color the color of the new stone
+     * @param record true if the overwritten values of other groups should be saved on the trail
+     */
+    //@requires getColor(field) == color && color != Color.EMPTY;
+    private void placeStone(int field, Color color, boolean record) {
+        int word = field >>> 6;
+        long bit = 1L << field;
+        long[] friends = color == Color.BLACK ? black : white;
+        int start = geometry.neighborOffset[field];
+        int end = geometry.neighborOffset[field + 1];
+
+        int base = field * words;
+        Arrays.fill(groupStones, base, base + words, 0L);
+        Arrays.fill(groupLiberties, base, base + words, 0L);
+        groupStones[base + word] = bit;
+        parent[field] = field;
+        groupSize[field] = 1;
+
+        for (int i = start; i < end; i++) {
+            int neighbor = geometry.neighbors[i];
+            if (isEmpty(neighbor)) {
+                groupLiberties[base + (neighbor >>> 6)] |= 1L << neighbor;
+            }
+        }
+
+        int root = field;
+        for (int i = start; i < end; i++) {
+            int neighbor = geometry.neighbors[i];
+            if (isEmpty(neighbor)) {
+                continue;
+            }
+
+            int other = find(neighbor);
+            if ((friends[neighbor >>> 6] >>> neighbor & 1L) != 0) {
+                if (other != root) {
+                    root = union(root, other, record);
+                }
+            } else if ((groupLiberties[other * words + word] & bit) != 0) {
+                if (record) {
+                    save(TRAIL_GROUP_LIBERTIES, other * words + word, groupLiberties[other * words + word]);
+                }
+                groupLiberties[other * words + word] &= ~bit;
+                if (isZero(groupLiberties, other * words)) {
+                    capturedGroups++;
+                }
+            }
+        }
+
+        // every merged group had the new stone as a liberty, so none of them was captured before
+        if (record && root != field) {
+            save(TRAIL_GROUP_LIBERTIES, root * words + word, groupLiberties[root * words + word]);
+        }
+        groupLiberties[root * words + word] &= ~bit;
+        if (isZero(groupLiberties, root * words)) {
+            capturedGroups++;
+        }
+    }
+
+    /**
+     * Merges two groups, the smaller one is attached to the larger one.
+     * @param a the root of the first group
+     * @param b the root of the second group
+     * @param record true if the overwritten values should be saved on the trail
+     * @return the root of the merged group
+     */
+    private int union(int a, int b, boolean record) {
+        if (groupSize[a] < groupSize[b]) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        if (record) {
+            save(TRAIL_PARENT, b, parent[b]);
+            save(TRAIL_GROUP_SIZE, a, groupSize[a]);
+            for (int w = 0; w < words; w++) {
+                save(TRAIL_GROUP_STONES, a * words + w, groupStones[a * words + w]);
+                save(TRAIL_GROUP_LIBERTIES, a * words + w, groupLiberties[a * words + w]);
+            }
+        }
+        parent[b] = a;
+        groupSize[a] += groupSize[b];
+        for (int w = 0; w < words; w++) {
+            groupStones[a * words + w] |= groupStones[b * words + w];
+            groupLiberties[a * words + w] |= groupLiberties[b * words + w];
+        }
+        return a;
+    }
+
+    /**
+     * Finds the root of the group of a stone.
+     * The path is not compressed, so looking up a group never changes the board and unplay
+     * only has to undo the unions. Union by size keeps the paths logarithmic.
+     * @param field the index of an occupied field
+     * @return the index of the root of the group
+     */
+    //@requires !isEmpty(field);
+    //@pure
+    private int find(int field) {
+        while (parent[field] != field) {
+            field = parent[field];
+        }
+        return field;
+    }
+
+    /**
+     * Recomputes all groups from the bitboards with flood fills.
+     * Used when a stone is removed or replaced, which the incremental update does not handle.
+     */
+    private void rebuildGroups() {
+        capturedGroups = 0;
+        rebuildGroups(black);
+        rebuildGroups(white);
+    }
+
+    /**
+     * Recomputes the groups within the given stones with flood fills.
+     * @param stones the stones of one color
+     */
+    private void rebuildGroups(long[] stones) {
+        long[] remaining = stones.clone();
+        long[] empty = empty();
+        while (!isZero(remaining, 0)) {
+            int root = firstField(remaining);
+            long[] group = flood(root, stones);
+            andNot(remaining, group);
+
+            long[] liberties = adjacent(group);
+            and(liberties, empty);
+            System.arraycopy(group, 0, groupStones, root * words, words);
+            System.arraycopy(liberties, 0, groupLiberties, root * words, words);
+            groupSize[root] = bitCount(group, 0);
+            if (isZero(liberties, 0)) {
+                capturedGroups++;
+            }
+            for (int w = 0; w < words; w++) {
+                long bits = group[w];
+                while (bits != 0) {
+                    parent[(w << 6) + Long.numberOfTrailingZeros(bits)] = root;
+                    bits &= bits - 1;
+                }
+            }
+        }
     }
 
     /**
@@ -153,7 +677,14 @@ public class Board {
     //@requires isValidField(field);
     //@pure
     public Color getColor(int field) {
-        return this.fields.get(field);
+        int word = field >>> 6;
+        if ((black[word] >>> field & 1L) != 0) {
+            return Color.BLACK;
+        }
+        if ((white[word] >>> field & 1L) != 0) {
+            return Color.WHITE;
+        }
+        return Color.EMPTY;
     }
 
     /**
@@ -163,10 +694,11 @@ public class Board {
      * @return true if the field is empty, false otherwise
      */
     //@requires isValidField(field);
-    //@ensures (this.fields.get(field) == Color.EMPTY) <==> \result == true;
+    //@ensures (getColor(field) == Color.EMPTY) <==> \result == true;
     //@pure
     public Boolean isEmpty(int field) {
-        return this.fields.get(field) == Color.EMPTY;
+        int word = field >>> 6;
+        return ((black[word] | white[word]) >>> field & 1L) == 0;
     }
 
     /**
@@ -175,10 +707,10 @@ public class Board {
      * @param field the index of the field to check
      * @return true if the field index is valid, false otherwise
      */
-    //@ensures (field >= 0 && field < DIM * DIM) <==> \result == true;
+    //@ensures (field >= 0 && field < getNumOfFields()) <==> \result == true;
     //@pure
     public Boolean isValidField(int field) {
-        return field >= 0 && field < DIM * DIM;
+        return field >= 0 && field < geometry.size;
     }
 
     /**
@@ -188,10 +720,10 @@ public class Board {
      * @param y the y coordinate of the field to check
      * @return true if the field coordinates are valid, false otherwise
      */
-    //@ensures (x >= 0 && x < DIM && y >= 0 && y < DIM) <==> \result == true;
+    //@ensures (x >= 0 && x < getDim() && y >= 0 && y < getDim()) <==> \result == true;
     //@pure
     public Boolean isValidField(int x, int y) {
-        return x >= 0 && x < DIM && y >= 0 && y < DIM;
+        return x >= 0 && x < dim && y >= 0 && y < dim;
     }
 
     /**
@@ -204,25 +736,41 @@ public class Board {
     //@ensures (\forall int i; \result.contains(i); isValidField(i));
     //@pure
     public Set<Integer> getNeighbors(int field) {
-        int x = getRow(field);
-        int y = getCol(field);
         Set<Integer> neighbors = new HashSet<>();
-
-        if( x > 0 ) {
-            neighbors.add(indexOf(x - 1, y));
-        }
-        if( x < DIM - 1 ) {
-            neighbors.add(indexOf(x + 1, y));
-        }
-        if( y > 0 ) {
-            neighbors.add(indexOf(x, y - 1));
-        }
-        if( y < DIM - 1 ) {
-            neighbors.add(indexOf(x, y + 1));
+        for (int i = geometry.neighborOffset[field]; i < geometry.neighborOffset[field + 1]; i++) {
+            neighbors.add(geometry.neighbors[i]);
         }
         return neighbors;
     }
 
+    /**
+     * Returns the number of neighbors of the specified field, without allocating a set.
+     * Use together with getNeighbor to iterate over the neighbors.
+     *
+     * @param field the index of the field
+     * @return the number of fields next to the field, between 2 and 4
+     */
+    //@requires isValidField(field);
+    //@ensures \result == getNeighbors(field).size();
+    //@pure
+    public int numOfNeighbors(int field) {
+        return geometry.neighborOffset[field + 1] - geometry.neighborOffset[field];
+    }
+
+    /**
+     * Returns a neighbor of the specified field from the precomputed neighbor table.
+     *
+     * @param field the index of the field
+     * @param index which neighbor to return, from 0 up to numOfNeighbors(field)
+     * @return the index of the neighboring field
+     */
+    //@requires isValidField(field) && 0 <= index && index < numOfNeighbors(field);
+    //@ensures getNeighbors(field).contains(\result);
+    //@pure
+    public int getNeighbor(int field, int index) {
+        return geometry.neighbors[geometry.neighborOffset[field] + index];
+    }
+
     /**
      * Retrieves the neighboring fields of a group of fields on the board.
      *
@@ -232,16 +780,22 @@ public class Board {
      */
     //@pure
     public Set<Integer> getNeighbors(Set <Integer> group) {
+        return getNeighborPoints(toPoints(group)).toSet();
+    }
 
-        Set<Integer> neighbors = new HashSet<>();
-
-        for( int i : group ) {
-            neighbors.addAll(getNeighbors(i));
-        }
-
-        neighbors.removeAll(group);
-
-        return neighbors;
+    /**
+     * Retrieves the neighboring fields of a group of fields on the board.
+     *
+     * @param group the fields of the group
+     * @return the fields next to the group that are not part of it
+     */
+    //@ensures \result.toSet().equals(getNeighbors(group.toSet()));
+    //@pure
+    public PointSet getNeighborPoints(PointSet group) {
+        long[] mask = group.words();
+        long[] neighbors = adjacent(mask);
+        andNot(neighbors, mask);
+        return new PointSet(neighbors);
     }
 
     /**
@@ -255,8 +809,8 @@ public class Board {
     //@pure
     public int numOfLiberties(int field) {
         int count = 0;
-        for( int i : getNeighbors(field)) {
-            if( isEmpty(i) ) {
+        for (int i = geometry.neighborOffset[field]; i < geometry.neighborOffset[field + 1]; i++) {
+            if (isEmpty(geometry.neighbors[i])) {
                 count++;
             }
         }
@@ -272,7 +826,20 @@ public class Board {
      */
     //@pure
     public int numOfLiberties(Set<Integer> group) {
-        return getLiberties(group).size();
+        return numOfLiberties(toPoints(group));
+    }
+
+    /**
+     * Calculates the number of liberties (empty neighboring fields)
+     * for a given group of fields on the board.
+     *
+     * @param group the fields of the group
+     * @return the number of empty neighboring fields (liberties) for the group
+     */
+    //@ensures \result == getLibertyPoints(group).size();
+    //@pure
+    public int numOfLiberties(PointSet group) {
+        return bitCount(liberties(group.words()), 0);
     }
 
     /**
@@ -284,13 +851,26 @@ public class Board {
     //@ensures (\forall int i; \result.contains(i); isValidField(i) && isEmpty(i) && getNeighbors(field).contains(i));
     //@pure
     public Set<Integer> getLiberties(int field) {
-        Set<Integer> liberties = new HashSet<>();
-        for( int i : getNeighbors(field) ) {
-            if( isEmpty(i) ) {
-                liberties.add(i);
+        return getLibertyPoints(field).toSet();
+    }
+
+    /**
+     * Returns the liberties of a field (empty neighbours).
+     * @param field field to check
+     * @return the empty neighbours of the field
+     */
+    //@requires isValidField(field);
+    //@ensures \result.size() == numOfLiberties(field);
+    //@pure
+    public PointSet getLibertyPoints(int field) {
+        long[] liberties = new long[words];
+        for (int i = geometry.neighborOffset[field]; i < geometry.neighborOffset[field + 1]; i++) {
+            int neighbor = geometry.neighbors[i];
+            if (isEmpty(neighbor)) {
+                liberties[neighbor >>> 6] |= 1L << neighbor;
             }
         }
-        return liberties;
+        return new PointSet(liberties);
     }
 
     /**
@@ -302,11 +882,18 @@ public class Board {
     //@ensures (\forall int i; \result.contains(i); isValidField(i) && isEmpty(i));
     //@pure
     public Set<Integer> getLiberties(Set <Integer> group) {
-        Set<Integer> liberties = new HashSet<>();
-        for( int i : group ) {
-            liberties.addAll(getLiberties(i));
-        }
-        return liberties;
+        return getLibertyPoints(toPoints(group)).toSet();
+    }
+
+    /**
+     * Returns the liberties of a group.
+     * @param group group to check
+     * @return the empty neighbours of the group
+     */
+    //@ensures \result.toSet().equals(getLiberties(group.toSet()));
+    //@pure
+    public PointSet getLibertyPoints(PointSet group) {
+        return new PointSet(liberties(group.words()));
     }
 
     /**
@@ -327,11 +914,15 @@ public class Board {
             return false;
         }
 
-        Set<Integer> neighbors = getNeighbors(field);
-
-        Set<Integer> group = getGroup(neighbors.iterator().next());
+        int start = geometry.neighborOffset[field];
+        int root = find(geometry.neighbors[start]);
 
-        return new HashSet<>(group).containsAll(neighbors);
+        for( int i = start + 1; i < geometry.neighborOffset[field + 1]; i++ ) {
+            if( find(geometry.neighbors[i]) != root ) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -343,10 +934,23 @@ public class Board {
      */
     //@pure
     public boolean isAlive(Set <Integer> group) {
+        return isAlive(toPoints(group));
+    }
+
+    /**
+     * Determines if a group of fields is considered "alive" based on the presence
+     * of at least two "eyes" in its neighboring fields.
+     *
+     * @param group the fields of the group
+     * @return true if the group has more than one "eye" in its neighboring fields, false otherwise
+     */
+    //@pure
+    public boolean isAlive(PointSet group) {
 
         int numOfEyes = 0;
 
-        for( int i : getNeighbors(group) ) {
+        PointSet neighbors = getNeighborPoints(group);
+        for( int i = neighbors.first(); i != -1; i = neighbors.next(i) ) {
             if( isEye(i) ) {
                 numOfEyes++;
             }
@@ -367,26 +971,123 @@ public class Board {
     //@ensures ((\forall int f; \result.contains(f); getColor(f) == getColor(field)));
     //@pure
     public Set<Integer> getGroup(int field) {
-        Set<Integer> group = new HashSet<>();
-        Set<Integer> visited = new HashSet<>();
-        List<Integer> stack = new ArrayList<>();
-        stack.add(field);
-
-        while (!stack.isEmpty()) {
-            int current = stack.remove(stack.size() - 1);
-            if (visited.contains(current)) {
-                continue;
-            }
-            visited.add(current);
-            group.add(current);
+        return getGroupPoints(field).toSet();
+    }
+
+    /**
+     * Returns the connected fields of the same color as the specified field.
+     *
+     * @param field the starting field index
+     * @return the fields of the group containing the field
+     */
+    //@requires isValidField(field);
+    //@ensures \result.toSet().equals(getGroup(field));
+    //@pure
+    public PointSet getGroupPoints(int field) {
+        return new PointSet(groupMask(field));
+    }
+
+    /**
+     * Returns the number of liberties of the group the specified stone belongs to.
+     *
+     * @param field the index of a field with a stone on it
+     * @return the number of empty fields next to the group of the stone
+     */
+    //@requires isValidField(field) && !isEmpty(field);
+    //@ensures \result == numOfLiberties(getGroup(field));
+    //@pure
+    public int numOfGroupLiberties(int field) {
+        if (words == 1) {
+            return Long.bitCount(groupLiberties[find(field)]);
+        }
+        return bitCount(groupLiberties, find(field) * words);
+    }
+
+    /**
+     * Returns the liberties of the group the specified stone belongs to.
+     *
+     * @param field the index of a field with a stone on it
+     * @return the set of empty fields next to the group of the stone
+     */
+    //@requires isValidField(field) && !isEmpty(field);
+    //@ensures \result.equals(getLiberties(getGroup(field)));
+    //@pure
+    public Set<Integer> getGroupLiberties(int field) {
+        return getGroupLibertyPoints(field).toSet();
+    }
+
+    /**
+     * Returns the liberties of the group the specified stone belongs to.
+     *
+     * @param field the index of a field with a stone on it
+     * @return the empty fields next to the group of the stone
+     */
+    //@requires isValidField(field) && !isEmpty(field);
+    //@ensures \result.size() == numOfGroupLiberties(field);
+    //@pure
+    public PointSet getGroupLibertyPoints(int field) {
+        int base = find(field) * words;
+        return new PointSet(Arrays.copyOfRange(groupLiberties, base, base + words));
+    }
+
+    /**
+     * Checks if the group the specified stone belongs to has exactly one liberty left.
+     *
+     * @param field the index of a field with a stone on it
+     * @return true if the group of the stone is in atari
+     */
+    //@requires isValidField(field) && !isEmpty(field);
+    //@ensures \result == (numOfGroupLiberties(field) == 1);
+    //@pure
+    public boolean isInAtari(int field) {
+        if (words == 1) {
+            long liberties = groupLiberties[find(field)];
+            return liberties != 0 && (liberties & (liberties - 1)) == 0;
+        }
+        return numOfGroupLiberties(field) == 1;
+    }
 
-            for (int neighbor : getNeighbors(current)) {
-                if (!visited.contains(neighbor) && getColor(neighbor) == getColor(field)) {
-                    stack.add(neighbor);
+    /**
+     * Finds a group of the given color that is in atari and returns its last liberty.
+     * Only the roots of the tracked groups are looked at, so every group is checked once.
+     *
+     * @param color the color of the groups to check
+     * @return the index of the last liberty of a group in atari, or -1 if no group of the color is in atari
+     */
+    //@requires color != Color.EMPTY;
+    //@ensures \result == -1 || (isEmpty(\result) && (\exists int f; getColor(f) == color; isInAtari(f)));
+    //@pure
+    public int findAtariLiberty(Color color) {
+        long[] stones = color == Color.BLACK ? black : white;
+        for (int w = 0; w < words; w++) {
+            long bits = stones[w];
+            while (bits != 0) {
+                int field = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (parent[field] == field && bitCount(groupLiberties, field * words) == 1) {
+                    int offset = field * words;
+                    int word = 0;
+                    while (groupLiberties[offset + word] == 0) {
+                        word++;
+                    }
+                    return (word << 6) + Long.numberOfTrailingZeros(groupLiberties[offset + word]);
                 }
             }
         }
-        return group;
+        return -1;
+    }
+
+    /**
+     * Returns the connected fields of the same color as the specified field using a flood fill.
+     * Reference implementation of getGroup that does not use the tracked groups.
+     *
+     * @param field the starting field index
+     * @return a set of integers representing the connected group
+     */
+    //@requires isValidField(field);
+    //@pure
+    Set<Integer> floodGroup(int field) {
+        return new PointSet(flood(field, mask(getColor(field)))).toSet();
     }
 
     /**
@@ -396,15 +1097,30 @@ public class Board {
      * @return a set of sets where each inner set contains the indices of a group of connected fields of the specified color
      */
     //@pure
-    //TODO optimise
     public Set<Set<Integer>> getGroups (Color color) {
         Set <Set <Integer>> groups = new HashSet<>();
+        for (PointSet group : getGroupPoints(color)) {
+            groups.add(group.toSet());
+        }
+        return groups;
+    }
 
-        for( int i = 0; i < Board.DIM * Board.DIM; i++ ) {
-            if( getColor(i) == color ) {
-                Set <Integer> group = getGroup(i);
-                groups.add(group);
-            }
+    /**
+     * Retrieves all groups of connected fields on the board that are of the specified color.
+     *
+     * @param color the color of the fields to group
+     * @return the groups of the color, ordered by their lowest field
+     */
+    //@ensures \result.size() == getGroups(color).size();
+    //@pure
+    public List<PointSet> getGroupPoints(Color color) {
+        List<PointSet> groups = new ArrayList<>();
+
+        long[] remaining = mask(color).clone();
+        while( !isZero(remaining, 0) ) {
+            long[] group = groupMask(firstField(remaining));
+            groups.add(new PointSet(group));
+            andNot(remaining, group);
         }
 
         return groups;
@@ -429,16 +1145,22 @@ public class Board {
      * @param color the desired color to filter fields
      * @return a set of integers representing the indices of fields with the specified color
      */
-    //@ensures (\forall int i; fields.contains(i); getColor(i) == color <==> \result.contains(i));
+    //@ensures (\forall int i; isValidField(i); getColor(i) == color <==> \result.contains(i));
     //@pure
     public Set<Integer> getFields(Color color) {
-        Set<Integer> fields = new HashSet<>();
-        for (int i = 0; i < Board.DIM * Board.DIM; i++) {
-            if (getColor(i) == color) {
-                fields.add(i);
-            }
-        }
-        return fields;
+        return getFieldPoints(color).toSet();
+    }
+
+    /**
+     * Retrieves the fields on the board that match the specified color.
+     *
+     * @param color the desired color to filter fields
+     * @return the fields with the specified color
+     */
+    //@ensures (\forall int i; isValidField(i); getColor(i) == color <==> \result.contains(i));
+    //@pure
+    public PointSet getFieldPoints(Color color) {
+        return new PointSet(mask(color).clone());
     }
 
     /**
@@ -446,15 +1168,240 @@ public class Board {
      *
      * @return a set of integers representing the indices of all fields occupied by black or white stones
      */
-    //@ensures (\forall int i; fields.contains(i); !isEmpty(i) <==> \result.contains(i));
+    //@ensures (\forall int i; isValidField(i); !isEmpty(i) <==> \result.contains(i));
     //@pure
     public Set<Integer> getFields() {
-        Set<Integer> f = new HashSet<>();
-        f.addAll(getFields(Color.BLACK));
-        f.addAll(getFields(Color.WHITE));
-        return f;
+        return getFieldPoints().toSet();
+    }
+
+    /**
+     * Retrieves the fields on the board occupied by black or white stones.
+     *
+     * @return the fields with a stone on them
+     */
+    //@ensures (\forall int i; isValidField(i); !isEmpty(i) <==> \result.contains(i));
+    //@pure
+    public PointSet getFieldPoints() {
+        long[] fields = new long[words];
+        for (int w = 0; w < words; w++) {
+            fields[w] = black[w] | white[w];
+        }
+        return new PointSet(fields);
+    }
+
+    /**
+     * Returns the bitboard of the fields with the given color.
+     * The masks of the stones are returned as is and must not be modified.
+     * @param color the color to get the bitboard of
+     * @return a mask with a bit set for every field of the given color
+     */
+    //@pure
+    private long[] mask(Color color) {
+        return switch (color) {
+            case BLACK -> black;
+            case WHITE -> white;
+            case EMPTY -> empty();
+        };
+    }
+
+    /**
+     * Returns the bitboard of the empty fields.
+     * @return a new mask with a bit set for every empty field
+     */
+    //@pure
+    private long[] empty() {
+        long[] empty = new long[words];
+        for (int w = 0; w < words; w++) {
+            empty[w] = geometry.full[w] & ~(black[w] | white[w]);
+        }
+        return empty;
+    }
+
+    /**
+     * Returns the bitboard of the connected fields of the same color as the given field.
+     * Stones are looked up in the tracked groups, empty regions are flood filled.
+     * @param field the starting field index
+     * @return a new mask of the group containing the field
+     */
+    //@requires isValidField(field);
+    //@pure
+    private long[] groupMask(int field) {
+        if (!isEmpty(field)) {
+            int base = find(field) * words;
+            return Arrays.copyOfRange(groupStones, base, base + words);
+        }
+        return flood(field, empty());
+    }
+
+    /**
+     * Computes the empty fields adjacent to the given fields.
+     * @param mask the fields to get the liberties of
+     * @return a new mask of the empty fields next to a field of the mask
+     */
+    //@pure
+    private long[] liberties(long[] mask) {
+        long[] liberties = adjacent(mask);
+        for (int w = 0; w < words; w++) {
+            liberties[w] &= ~(black[w] | white[w]);
+        }
+        return liberties;
+    }
+
+    /**
+     * Computes all fields adjacent (horizontally or vertically) to the given fields.
+     * Fields of the mask itself are only included if they neighbor another field of the mask.
+     * The shifts carry bits over between the words of the mask.
+     * @param mask the fields to get the neighbors of
+     * @return a new mask of every field adjacent to a field of the mask
+     */
+    //@pure
+    private long[] adjacent(long[] mask) {
+        long[] adjacent = new long[words];
+        int last = words - 1;
+        for (int w = 0; w <= last; w++) {
+            long up = (mask[w] >>> dim) | (w < last ? mask[w + 1] << (64 - dim) : 0L);
+            long down = (mask[w] << dim) | (w > 0 ? mask[w - 1] >>> (64 - dim) : 0L);
+            long right = ((mask[w] & geometry.notLastCol[w]) << 1)
+                    | (w > 0 ? (mask[w - 1] & geometry.notLastCol[w - 1]) >>> 63 : 0L);
+            long left = ((mask[w] & geometry.notFirstCol[w]) >>> 1)
+                    | (w < last ? (mask[w + 1] & geometry.notFirstCol[w + 1]) << 63 : 0L);
+            adjacent[w] = (up | down | right | left) & geometry.full[w];
+        }
+        return adjacent;
+    }
+
+    /**
+     * Flood fills from the field through the given area.
+     * @param field the field to start from, must be within the area
+     * @param area the fields the fill may spread over
+     * @return a new mask of the fields of the area that are connected to the field
+     */
+    //@pure
+    private long[] flood(int field, long[] area) {
+        long[] filled = new long[words];
+        filled[field >>> 6] = 1L << field;
+        boolean grown = true;
+        while (grown) {
+            long[] next = adjacent(filled);
+            grown = false;
+            for (int w = 0; w < words; w++) {
+                long word = (filled[w] | next[w]) & area[w];
+                grown |= word != filled[w];
+                filled[w] = word;
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Returns the lowest field set in a mask.
+     * @param mask a mask with at least one bit set
+     * @return the index of the lowest set bit
+     */
+    //@pure
+    private int firstField(long[] mask) {
+        int w = 0;
+        while (mask[w] == 0) {
+            w++;
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(mask[w]);
+    }
+
+    /**
+     * Checks if the mask of words longs starting at the offset has no bits set.
+     * @param mask the array holding the mask
+     * @param offset the index of the first word of the mask
+     * @return true if no bit is set
+     */
+    //@pure
+    private boolean isZero(long[] mask, int offset) {
+        for (int w = 0; w < words; w++) {
+            if (mask[offset + w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the bits of the mask of words longs starting at the offset.
+     * @param mask the array holding the mask
+     * @param offset the index of the first word of the mask
+     * @return the number of bits set
+     */
+    //@pure
+    private int bitCount(long[] mask, int offset) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(mask[offset + w]);
+        }
+        return count;
+    }
+
+    /**
+     * Intersects the first mask with the second one in place.
+     * @param mask the mask to modify
+     * @param other the mask to intersect with
+     */
+    private void and(long[] mask, long[] other) {
+        for (int w = 0; w < words; w++) {
+            mask[w] &= other[w];
+        }
+    }
+
+    /**
+     * Removes the fields of the second mask from the first one in place.
+     * @param mask the mask to modify
+     * @param other the fields to remove
+     */
+    private void andNot(long[] mask, long[] other) {
+        for (int w = 0; w < words; w++) {
+            mask[w] &= ~other[w];
+        }
+    }
+
+    /**
+     * Converts a set of field indices to a point set of this board.
+     * @param fields the set of indices to convert, all of them valid fields
+     * @return a point set with the fields of the set
+     */
+    //@pure
+    private PointSet toPoints(Set<Integer> fields) {
+        long[] mask = new long[words];
+        for (int i : fields) {
+            mask[i >>> 6] |= 1L << i;
+        }
+        return new PointSet(mask);
+    }
+
+    /**
+     * Checks if the other object is a board with the same position.
+     * The hashes are compared first, so unequal positions are rejected without looking at the stones.
+     * @param o the object to compare with
+     * @return true if the other object is a board of the same dimension with the same stones
+     */
+    //@pure
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Board other)) {
+            return false;
+        }
+        return hash == other.hash && dim == other.dim
+                && Arrays.equals(black, other.black) && Arrays.equals(white, other.white);
     }
 
+    /**
+     * Returns a hash code based on the Zobrist hash of the position.
+     * @return the hash code of the board
+     */
+    //@pure
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
 
     /**
      * Generates a string representation of the current board.
@@ -468,14 +1415,14 @@ public class Board {
 
         // First line:
         sb.append((ConsoleColors.YELLOW_BOLD_BRIGHT + "+" + ConsoleColors.RED_BOLD_BRIGHT +
-                "---").repeat(DIM));
+                "---").repeat(dim));
         sb.append(ConsoleColors.YELLOW_BOLD_BRIGHT + "+\n");
 
         // Now recursively print the rest:
-        for (int i = 0; i < DIM; i++) {
-            for (int j = 0; j < DIM; j++) {
+        for (int i = 0; i < dim; i++) {
+            for (int j = 0; j < dim; j++) {
                 sb.append(ConsoleColors.RED_BOLD_BRIGHT + "|" + ConsoleColors.RESET);
-                switch (this.fields.get(i * DIM + j)) {
+                switch (getColor(i * dim + j)) {
                     case BLACK -> sb.append(ConsoleColors.PURPLE_BOLD_BRIGHT + " O ");
                     case WHITE -> sb.append(ConsoleColors.WHITE_BOLD_BRIGHT + " O ");
                     case EMPTY -> {
@@ -489,9 +1436,69 @@ public class Board {
             sb.append(ConsoleColors.RED_BOLD_BRIGHT + "|\n");
 
             sb.append((ConsoleColors.YELLOW_BOLD_BRIGHT + "+" + ConsoleColors.RED_BOLD_BRIGHT +
-                    "---").repeat(DIM));
+                    "---").repeat(dim));
             sb.append(ConsoleColors.YELLOW_BOLD_BRIGHT + "+\n");
         }
         return sb.toString();
     }
+
+    /**
+     * The masks and neighbor tables of one board dimension.
+     * These only depend on the dimension, so they are computed once and shared by all boards of that size.
+     */
+    private static final class Geometry {
+        final int size;
+        /** Number of longs in a bit mask. */
+        final int words;
+        /** Mask with a bit set for every field on the board. */
+        final long[] full;
+        /** Mask of every field except the ones in the first column. */
+        final long[] notFirstCol;
+        /** Mask of every field except the ones in the last column. */
+        final long[] notLastCol;
+        /** Neighbors of every field, the neighbors of field i are at neighborOffset[i] until neighborOffset[i + 1]. */
+        final int[] neighbors;
+        /** Start of the neighbors of every field in neighbors, with one extra entry marking the end. */
+        final int[] neighborOffset;
+
+        Geometry(int dim) {
+            this.size = dim * dim;
+            this.words = (size + 63) >>> 6;
+            this.full = new long[words];
+            this.notFirstCol = new long[words];
+            this.notLastCol = new long[words];
+            this.neighborOffset = new int[size + 1];
+
+            int[] table = new int[4 * size];
+            int count = 0;
+            for (int field = 0; field < size; field++) {
+                int x = field / dim;
+                int y = field % dim;
+                long bit = 1L << field;
+                full[field >>> 6] |= bit;
+                if (y > 0) {
+                    notFirstCol[field >>> 6] |= bit;
+                }
+                if (y < dim - 1) {
+                    notLastCol[field >>> 6] |= bit;
+                }
+
+                neighborOffset[field] = count;
+                if (x > 0) {
+                    table[count++] = field - dim;
+                }
+                if (y > 0) {
+                    table[count++] = field - 1;
+                }
+                if (y < dim - 1) {
+                    table[count++] = field + 1;
+                }
+                if (x < dim - 1) {
+                    table[count++] = field + dim;
+                }
+            }
+            neighborOffset[size] = count;
+            this.neighbors = Arrays.copyOf(table, count);
+        }
+    }
 }
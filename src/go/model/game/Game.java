@@ -12,19 +12,34 @@ public class Game {
     private final Player p1;
     private final Player p2;
     private Board board;
+    /** Winner of the position with hash winnerHash, null if there is none. */
+    private Color winner;
+    /** Hash of the position the cached winner belongs to. */
+    private long winnerHash;
 
 
     //TODO hyper optimise methods for time and not memory
 
     /**
-     * Creates a game with the starting board.
+     * Creates a game with the starting board of the default dimension.
      * @param p1
      * @param p2
      */
     public Game(Player p1, Player p2) {
+        this(p1, p2, Board.DIM);
+    }
+
+    /**
+     * Creates a game with the starting board of the given dimension.
+     * @param p1
+     * @param p2
+     * @param dim the number of rows and columns of the board
+     */
+    public Game(Player p1, Player p2, int dim) {
         this.p1 = p1;
         this.p2 = p2;
-        this.board = new Board();
+        this.board = new Board(dim);
+        updateWinner();
     }
 
     /**
@@ -34,8 +49,10 @@ public class Game {
      * @param board
      */
     public Game(Player p1, Player p2, Board board) {
-        this(p1,p2);
+        this.p1 = p1;
+        this.p2 = p2;
         this.board = board.deepCopy();
+        updateWinner();
     }
 
     /**
@@ -62,8 +79,17 @@ public class Game {
         return this.board;
     }
 
+    /**
+     * Returns the Zobrist hash of the current position.
+     * @return the hash of the board of the game
+     */
+    public long hash() {
+        return board.hash();
+    }
+
     /**
      * returns if the game is over
+     * The board counts the groups without liberties, so this takes constant time.
      * @return true if the game is over
      */
     public Boolean isGameOver() {
@@ -72,12 +98,56 @@ public class Game {
 
     /**
      * returns the color of the winner if there is one null otherwise.
+     * The winner is cached by doMove, it is only searched for again if the board was changed directly.
      * @return
      */
     public Color getWinner() {
-        for (int i = 0; i < Board.DIM * Board.DIM; i++) {
-            if (board.getColor(i) != Color.EMPTY && board.numOfLiberties(board.getGroup(i)) == 0 && board.getTurn() == board.getColor(i)) {
-                return board.getColor(i).other();
+        if (board.hash() != winnerHash) {
+            updateWinner();
+        }
+        return winner;
+    }
+
+    /**
+     * Searches the whole board for the winner and caches it for the current position.
+     */
+    private void updateWinner() {
+        winner = findWinner();
+        winnerHash = board.hash();
+    }
+
+    /**
+     * Searches the whole board for a captured group of the player to move.
+     * @return the color of the winner, null if there is none
+     */
+    //@pure
+    private Color findWinner() {
+        if (!board.isGameOver()) {
+            return null;
+        }
+        Color turn = board.getTurn();
+        for (int i = 0; i < board.getNumOfFields(); i++) {
+            if (board.getColor(i) == turn && board.numOfGroupLiberties(i) == 0) {
+                return turn.other();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the winner after a move on a board where no group was captured before.
+     * Only the opponent groups next to the move can have lost their last liberty.
+     * @param move the move that was just played
+     * @return the color of the move if it captured a group, null otherwise
+     */
+    //@pure
+    private Color findCapture(Move move) {
+        int field = move.getField();
+        Color opponent = move.getColor().other();
+        for (int n = 0; n < board.numOfNeighbors(field); n++) {
+            int i = board.getNeighbor(field, n);
+            if (board.getColor(i) == opponent && board.numOfGroupLiberties(i) == 0) {
+                return move.getColor();
             }
         }
         return null;
@@ -90,8 +160,10 @@ public class Game {
      */
     @Deprecated
     public boolean captures(Move move) {
-        for (int i : board.getNeighbors(move.getField())) {
-            if (!board.isEmpty(i) && 1 == board.numOfLiberties(board.getGroup(i))) {
+        int field = move.getField();
+        for (int n = 0; n < board.numOfNeighbors(field); n++) {
+            int i = board.getNeighbor(field, n);
+            if (!board.isEmpty(i) && board.isInAtari(i)) {
                 return true;
             }
         }
@@ -127,8 +199,8 @@ public class Game {
     public List<Move> getValidMoves() {
         List<Move> moves = new ArrayList<>();
 
-        for (int i = 0; i < Board.DIM * Board.DIM; i++) {
-            Move move = new Move(i, board.getTurn());
+        for (int i = 0; i < board.getNumOfFields(); i++) {
+            Move move = new Move(i, board.getTurn(), board.getDim());
             if (isValidMove(move)) {
                 moves.add(move);
             }
@@ -153,7 +225,9 @@ public class Game {
             if (captures(move)) {
                 score = Double.POSITIVE_INFINITY;
             } else {
-                for (int i : board.getNeighbors(move.getField())) {
+                int field = move.getField();
+                for (int n = 0; n < board.numOfNeighbors(field); n++) {
+                    int i = board.getNeighbor(field, n);
                     if(board.getColor(i) == move.getColor()) {
                         score += 1.0;
                     } else if (board.getColor(i) != move.getColor()) {
@@ -179,6 +253,7 @@ public class Game {
     /**
      * Executes the specified move if it is valid, updates the game state,
      * and checks if the game is over after the move.
+     * The winner is found from the groups next to the move and cached.
      *
      * @param move the move to be executed
      * @throws IllegalMoveException if the move is invalid
@@ -186,21 +261,35 @@ public class Game {
     //@requires isValidMove(move);
     public void doMove(Move move) {
         if (isValidMove(move)) {
-            board.setField(move.getField(), move.getColor());
+            boolean wasOver = board.isGameOver();
+            board.play(move.getField(), move.getColor());
+            winner = wasOver ? findWinner() : findCapture(move);
+            winnerHash = board.hash();
 
         } else {
             throw new IllegalMoveException(board.toString(), move.toString());
         }
     }
 
+    /**
+     * Takes back the last move played with doMove.
+     * Together with doMove this lets search code walk the game tree on one game without copying it.
+     * Moves played before the board was changed directly or before the game was copied cannot be undone.
+     *
+     * @throws IllegalStateException if there is no move to undo
+     */
+    //@requires getBoard().getNumOfPlays() > 0;
+    public void undoMove() {
+        board.unplay();
+        updateWinner();
+    }
+
     /**
      * deepcopy method for game
      * @return
      */
     public Game deepCopy() {
-        Game newGame = new Game(p1, p2);
-        newGame.board = board.deepCopy();
-        return newGame;
+        return new Game(p1, p2, board);
     }
 
     /**
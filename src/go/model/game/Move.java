@@ -8,27 +8,51 @@ import go.model.interfaces.Color;
 public class Move {
     private final int field;
     private final Color color;
+    private final int dim;
 
 
     /**
-     * Constructs a new Move object with the specified field position and color.
+     * Constructs a new Move object with the specified field position and color
+     * on a board of the default dimension.
      * @param tile the position of the move as an integer
      * @param color the color of the move
      */
     public Move(int tile, Color color) {
+        this(tile, color, Board.DIM);
+    }
+
+    /**
+     * Constructs a new Move object with the specified field position and color.
+     * @param tile the position of the move as an integer
+     * @param color the color of the move
+     * @param dim the dimension of the board the move is played on
+     */
+    public Move(int tile, Color color, int dim) {
         this.field = tile;
         this.color = color;
+        this.dim = dim;
     }
 
     /**
-     * Constructs a new Move object with the specified field position and color.
+     * Constructs a new Move object with the specified field position and color
+     * on a board of the default dimension.
      * @param x the x coordinate of the move
      * @param y the y coordinate of the move
      * @param color the color of the move
      */
     public Move(int x, int y, Color color) {
-        this.field = x + y * Board.DIM;
-        this.color = color;
+        this(x, y, color, Board.DIM);
+    }
+
+    /**
+     * Constructs a new Move object with the specified field position and color.
+     * @param x the x coordinate of the move
+     * @param y the y coordinate of the move
+     * @param color the color of the move
+     * @param dim the dimension of the board the move is played on
+     */
+    public Move(int x, int y, Color color, int dim) {
+        this(x + y * dim, color, dim);
     }
 
     /**
@@ -53,7 +77,7 @@ public class Move {
      * @return the x-coordinate of the field as an integer
      */
     public int getX() {
-        return this.field / Board.DIM;
+        return this.field / dim;
     }
 
     /**
@@ -61,7 +85,7 @@ public class Move {
      * @return the y-coordinate of the field as an integer
      */
     public int getY() {
-        return this.field % Board.DIM;
+        return this.field % dim;
     }
 
     /**
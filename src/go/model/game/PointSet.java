@@ -0,0 +1,236 @@
+package go.model.game;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable set of fields of a board, stored as a bit mask where bit i is set if field i is in the set.
+ * A set of a board up to 8x8 is a single long, larger boards use one long per 64 fields.
+ * Unlike a Set of Integers nothing is boxed or hashed, and the set operations are a few word operations.
+ * Iterate over the fields with first and next:
+ * <pre>
+ * for (int field = set.first(); field != -1; field = set.next(field)) { ... }
+ * </pre>
+ */
+public final class PointSet {
+    private final long[] words;
+
+    /**
+     * Creates a set of fields of a board.
+     * @param numOfFields the number of fields of the board the set belongs to
+     * @param fields the fields in the set
+     */
+    //@requires (\forall int i; 0 <= i && i < fields.length; 0 <= fields[i] && fields[i] < numOfFields);
+    //@ensures size() <= fields.length;
+    public PointSet(int numOfFields, int... fields) {
+        this.words = new long[(numOfFields + 63) >>> 6];
+        for (int field : fields) {
+            words[field >>> 6] |= 1L << field;
+        }
+    }
+
+    /**
+     * Creates a set from a bit mask, the mask is used as is and must not be modified afterwards.
+     * @param words the bit mask of the fields
+     */
+    PointSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Returns the number of fields in the set.
+     * @return the number of bits set
+     */
+    //@ensures \result >= 0;
+    //@pure
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Checks if the set has no fields.
+     * @return true if no bit is set
+     */
+    //@ensures \result == (size() == 0);
+    //@pure
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a field is in the set.
+     * @param field the index of the field
+     * @return true if the bit of the field is set
+     */
+    //@pure
+    public boolean contains(int field) {
+        int word = field >>> 6;
+        return field >= 0 && word < words.length && (words[word] >>> field & 1L) != 0;
+    }
+
+    /**
+     * Returns the lowest field of the set.
+     * @return the index of the lowest field, -1 if the set is empty
+     */
+    //@ensures \result == -1 <==> isEmpty();
+    //@pure
+    public int first() {
+        return next(-1);
+    }
+
+    /**
+     * Returns the lowest field of the set above the given field.
+     * @param field the field to search after, -1 to search from the start
+     * @return the index of the next field, -1 if there is none
+     */
+    //@ensures \result == -1 || (contains(\result) && \result > field);
+    //@pure
+    public int next(int field) {
+        int from = field + 1;
+        int w = from >>> 6;
+        if (w >= words.length) {
+            return -1;
+        }
+        long bits = words[w] & (-1L << from);
+        while (bits == 0) {
+            w++;
+            if (w == words.length) {
+                return -1;
+            }
+            bits = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the fields that are in this set or in the other set.
+     * @param other a set of the same board
+     * @return a new set with the fields of both sets
+     */
+    //@pure
+    public PointSet union(PointSet other) {
+        long[] result = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int w = 0; w < other.words.length; w++) {
+            result[w] |= other.words[w];
+        }
+        return new PointSet(result);
+    }
+
+    /**
+     * Returns the fields that are in both this set and the other set.
+     * @param other a set of the same board
+     * @return a new set with the fields the sets have in common
+     */
+    //@pure
+    public PointSet intersection(PointSet other) {
+        long[] result = Arrays.copyOf(words, words.length);
+        for (int w = 0; w < result.length; w++) {
+            result[w] &= w < other.words.length ? other.words[w] : 0L;
+        }
+        return new PointSet(result);
+    }
+
+    /**
+     * Returns the fields of this set that are not in the other set.
+     * @param other a set of the same board
+     * @return a new set with the fields of this set minus the fields of the other set
+     */
+    //@pure
+    public PointSet minus(PointSet other) {
+        long[] result = Arrays.copyOf(words, words.length);
+        for (int w = 0; w < Math.min(result.length, other.words.length); w++) {
+            result[w] &= ~other.words[w];
+        }
+        return new PointSet(result);
+    }
+
+    /**
+     * Returns the bit mask of the set, which must not be modified.
+     * @return the words of the set
+     */
+    //@pure
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Converts the set to a set of field indices, for code that still works with boxed sets.
+     * @return a new set with the index of every field in this set
+     */
+    //@ensures \result.size() == size();
+    //@pure
+    public Set<Integer> toSet() {
+        Set<Integer> set = new HashSet<>();
+        for (int field = first(); field != -1; field = next(field)) {
+            set.add(field);
+        }
+        return set;
+    }
+
+    /**
+     * Checks if the other object is a point set with the same fields.
+     * @param o the object to compare with
+     * @return true if both sets hold the same fields
+     */
+    //@pure
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PointSet other)) {
+            return false;
+        }
+        int length = Math.max(words.length, other.words.length);
+        for (int w = 0; w < length; w++) {
+            long a = w < words.length ? words[w] : 0L;
+            long b = w < other.words.length ? other.words[w] : 0L;
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code based on the fields of the set.
+     * @return the hash code of the set
+     */
+    //@pure
+    @Override
+    public int hashCode() {
+        // empty words do not change the hash, like they do not change equals
+        long hash = 0;
+        for (int w = 0; w < words.length; w++) {
+            hash ^= Long.rotateLeft(words[w], w);
+        }
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * Returns the fields of the set, formatted like a Set of Integers.
+     * @return the set as a string
+     */
+    //@pure
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int field = first(); field != -1; field = next(field)) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(field);
+        }
+        return builder.append(']').toString();
+    }
+}
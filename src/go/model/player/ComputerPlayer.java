@@ -37,4 +37,12 @@ public class ComputerPlayer implements Player {
         return strategy.determineMove(game);
     }
 
+    /**
+     * Stops the work the strategy does in the background, like MCTS pondering.
+     * Called when the game is over or the player is replaced.
+     */
+    public void stop() {
+        strategy.stop();
+    }
+
 }
@@ -60,7 +60,7 @@ public class HumanPlayer implements Player {
                 System.out.println("The arguments provided are not valid coordinates or not enough arguments!");
                 continue;
             }
-            if (!game.isValidMove(new Move(x, y, this.color))) {
+            if (!game.isValidMove(new Move(x, y, this.color, game.getBoard().getDim()))) {
                 System.out.println("This is not a valid move!");
                 continue;
             }
@@ -68,6 +68,6 @@ public class HumanPlayer implements Player {
             // Valid move
             correctMove = true;
         }
-        return new Move(x, y, this.color);
+        return new Move(x, y, this.color, game.getBoard().getDim());
     }
 }
@@ -2,8 +2,10 @@ package go.ui;
 
 import go.ai.interfaces.Strategy;
 import go.ai.mcts.MCTS;
+import go.ai.mcts.SearchConfig;
 import go.ai.strategy.NaiveStrategy;
 import go.ai.strategy.SimpleStrategy;
+import go.model.game.Board;
 import go.model.game.Game;
 import go.model.game.Move;
 import go.model.interfaces.Color;
@@ -19,6 +21,7 @@ import java.util.Scanner;
 public class GoTUI {
     public static Scanner sc = new Scanner(System.in);
     private static Game game;
+    private static int dim = Board.DIM;
     private Move lastMove;
     private static int p1Score = 0;
     private static int p2Score = 0;
@@ -126,6 +129,91 @@ public class GoTUI {
         }
     }
 
+    private static int getBoardSize() {
+        return (int) getNumber("Board size (" + Board.MIN_DIM + "-" + Board.MAX_DIM + ", default " + Board.DIM + ")? ",
+                Board.DIM, Board.MIN_DIM, Board.MAX_DIM);
+    }
+
+    private static int getThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return (int) getNumber("How many threads (default " + cores + ")? ", cores, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Asks for a number, returning the default on an empty line.
+     * @param question the question to ask
+     * @param defaultValue the value of an empty line
+     * @param min the lowest valid number
+     * @return the number given
+     */
+    private static long getNumber(String question, long defaultValue, long min) {
+        return getNumber(question, defaultValue, min, Long.MAX_VALUE);
+    }
+
+    /**
+     * Asks for a number in a range, returning the default on an empty line.
+     * @param question the question to ask
+     * @param defaultValue the value of an empty line
+     * @param min the lowest valid number
+     * @param max the highest valid number
+     * @return the number given
+     */
+    private static long getNumber(String question, long defaultValue, long min, long max) {
+        while (true) {
+            System.out.print(question);
+            String line = sc.nextLine();
+            if (line.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                long number = Long.parseLong(line.trim());
+                if(number < min || number > max) {
+                    System.out.print("try again\n");
+                } else {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                System.out.print("try again\n");
+            }
+        }
+    }
+
+    /**
+     * Asks a yes or no question.
+     * @param question the question to ask
+     * @return true for yes
+     */
+    private static boolean getYesNo(String question) {
+        while (true) {
+            System.out.print(question);
+            switch (sc.nextLine()) {
+                case "y":
+                    return true;
+                case "n":
+                    return false;
+                default:
+                    System.out.print("try again\n");
+            }
+        }
+    }
+
+    /**
+     * Asks for the settings of an MCTS search: the threads and the limits that end a search.
+     * @return the search config
+     */
+    private static SearchConfig getSearchConfig() {
+        SearchConfig.Builder builder = SearchConfig.builder().threads(getThreads());
+        builder.timeLimit(getNumber("Milliseconds per move (default 5000)? ", 5000, 1));
+        builder.pondering(getYesNo("Think on the time of the opponent? (y/n) "));
+        builder.maxPlayouts(getNumber("Maximum playouts per move (default none)? ", SearchConfig.NO_LIMIT, 1));
+        builder.maxNodes(getNumber("Maximum tree nodes (default none)? ", SearchConfig.NO_LIMIT, 1));
+        long heap = getNumber("Maximum heap in MB (default none)? ", 0, 1);
+        if (heap > 0) {
+            builder.maxHeapBytes(heap * 1024 * 1024);
+        }
+        return builder.build();
+    }
+
     private static Strategy getStrategyLevel() {
         while (true) {
             System.out.print("naive, simple, mcts? ");
@@ -137,7 +225,7 @@ public class GoTUI {
                 case "simple":
                     return new SimpleStrategy();
                 case "mcts":
-                    return new MCTS();
+                    return new MCTS(getSearchConfig());
                 default:
                     System.out.print("try again\n");
             }
@@ -151,6 +239,9 @@ public class GoTUI {
     public static void setup(boolean newPlayers) {
         Player p1 = null;
         Player p2 = null;
+        if (newPlayers && game != null) {
+            stopPlayers();
+        }
         if (newPlayers) {
             p1 = null;
             p2 = null;
@@ -204,19 +295,22 @@ public class GoTUI {
                         System.out.print("try again\n");
                 }
             }
+
+            dim = getBoardSize();
         }
         else {
             p1 = game.getP1();
             p2 = game.getP2();
         }
 
-        game = new Game(p1, p2);
+        game = new Game(p1, p2, dim);
     }
 
     public void simulateGame() {
         while (winCondition() == false) {
             System.out.println(game.getBoard().toString());
         }
+        stopPlayers();
 
         Player winner = lastMove.getColor() == Color.BLACK ? game.getP1() : game.getP2();
         if(winner == game.getP1()) {
@@ -236,6 +330,7 @@ public class GoTUI {
         System.out.println(game.getBoard().toString());
         System.out.println("Last move: " + lastMove);
         System.out.println("Game over!");
+        stopPlayers();
 
 
         Player winner = lastMove.getColor() == Color.BLACK ? game.getP1() : game.getP2();
@@ -250,6 +345,17 @@ public class GoTUI {
         System.out.println("P1: " + p1Score + " P2: " + p2Score);
     }
 
+    /**
+     * Stops the background work of the computer players of the game, like pondering.
+     */
+    private static void stopPlayers() {
+        for (Player player : new Player[] {game.getP1(), game.getP2()}) {
+            if (player instanceof ComputerPlayer computer) {
+                computer.stop();
+            }
+        }
+    }
+
     private boolean winCondition() {
         if(game.getValidMoves().isEmpty()) {
             return true;
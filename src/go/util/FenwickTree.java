@@ -0,0 +1,144 @@
+package go.util;
+
+import java.util.Arrays;
+
+/**
+ * Non-negative integer weights of a fixed number of items that can be changed and drawn from in O(log n),
+ * a Fenwick tree (binary indexed tree) over the weights.
+ * An item is drawn with a probability proportional to its weight by finding the item
+ * a random number below the total weight falls into.
+ * It is not thread safe.
+ */
+public final class FenwickTree {
+    /** The partial sums, entry i holds the weights of the items i - lowbit(i) up to i - 1, entry 0 is unused. */
+    private final int[] tree;
+    private final int[] weights;
+    /** The largest power of two that is at most the number of items, where the search for an item starts. */
+    private final int top;
+    private int total;
+
+    /**
+     * Creates a tree with all weights 0.
+     * @param size the number of items
+     */
+    //@requires size >= 0;
+    //@ensures total() == 0;
+    public FenwickTree(int size) {
+        this.tree = new int[size + 1];
+        this.weights = new int[size];
+        this.top = size == 0 ? 0 : Integer.highestOneBit(size);
+    }
+
+    /**
+     * Returns the number of items.
+     * @return the number of items
+     */
+    //@pure
+    public int size() {
+        return weights.length;
+    }
+
+    /**
+     * Returns the sum of all weights.
+     * @return the total weight
+     */
+    //@pure
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Returns the weight of an item.
+     * @param item the index of the item
+     * @return its weight
+     */
+    //@requires 0 <= item && item < size();
+    //@pure
+    public int get(int item) {
+        return weights[item];
+    }
+
+    /**
+     * Changes the weight of an item.
+     * @param item the index of the item
+     * @param weight the new weight
+     */
+    //@requires 0 <= item && item < size() && weight >= 0;
+    //@ensures get(item) == weight;
+    public void set(int item, int weight) {
+        int delta = weight - weights[item];
+        if (delta == 0) {
+            return;
+        }
+        weights[item] = weight;
+        total += delta;
+        for (int i = item + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the weights of the items before an item.
+     * @param item the index of the item, size() for the total weight
+     * @return the weights of the items 0 up to item - 1
+     */
+    //@requires 0 <= item && item <= size();
+    //@pure
+    public int prefix(int item) {
+        int sum = 0;
+        for (int i = item; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the item a value falls into when the weights are laid out one after the other,
+     * so a uniform random value below the total weight draws each item with a probability proportional to its weight.
+     * @param value the value
+     * @return the item with prefix(item) <= value < prefix(item) + get(item)
+     */
+    //@requires 0 <= value && value < total();
+    //@ensures get(\result) > 0;
+    //@pure
+    public int find(int value) {
+        int item = 0;
+        for (int step = top; step > 0; step >>= 1) {
+            int next = item + step;
+            if (next < tree.length && tree[next] <= value) {
+                item = next;
+                value -= tree[next];
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Replaces all weights at once, in O(n) instead of O(n log n) for setting them one by one.
+     * @param weights the new weights, one per item
+     */
+    //@requires weights.length == size();
+    //@ensures (\forall int i; 0 <= i && i < size(); get(i) == weights[i]);
+    public void setAll(int[] weights) {
+        System.arraycopy(weights, 0, this.weights, 0, weights.length);
+        System.arraycopy(weights, 0, tree, 1, weights.length);
+        total = 0;
+        for (int i = 1; i < tree.length; i++) {
+            total += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Sets all weights to 0.
+     */
+    //@ensures total() == 0;
+    public void clear() {
+        Arrays.fill(tree, 0);
+        Arrays.fill(weights, 0);
+        total = 0;
+    }
+}
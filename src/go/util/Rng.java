@@ -0,0 +1,120 @@
+package go.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast random number generator for the strategies and playouts, using the xoshiro256** algorithm.
+ * Unlike java.util.Random it has no atomic state, so it is not thread safe:
+ * every thread gets its own generator, split from a parent with split().
+ * A generator created with a seed always returns the same numbers, and so do the generators split from it,
+ * which makes searches and benchmarks repeatable.
+ */
+public final class Rng {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    /** Seeds generators created without a seed, so they differ even when created at the same time. */
+    private static final AtomicLong SEEDER = new AtomicLong(System.nanoTime());
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * Creates a generator with a seed that differs from all other unseeded generators.
+     */
+    public Rng() {
+        this(SEEDER.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime());
+    }
+
+    /**
+     * Creates a generator with the given seed.
+     * @param seed the seed, any value is fine
+     */
+    public Rng(long seed) {
+        // splitmix64 spreads the seed over the four state words, which are then never all zero
+        long x = seed;
+        s0 = mix(x += GOLDEN_GAMMA);
+        s1 = mix(x += GOLDEN_GAMMA);
+        s2 = mix(x += GOLDEN_GAMMA);
+        s3 = mix(x + GOLDEN_GAMMA);
+    }
+
+    /**
+     * Scrambles a value with the splitmix64 finalizer.
+     * @param z the value
+     * @return the scrambled value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Creates a new generator for another thread, seeded from this one.
+     * The numbers of the new generator do not follow those of this one,
+     * and splitting a seeded generator gives the same new generators every time.
+     * @return the new generator
+     */
+    public Rng split() {
+        return new Rng(nextLong());
+    }
+
+    /**
+     * Returns the next 64 random bits.
+     * @return a random long
+     */
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * Returns a random number from 0 up to the bound, every number equally likely.
+     * @param bound the number above the highest result
+     * @return a random int from 0 to bound - 1
+     * @throws IllegalArgumentException if the bound is not positive
+     */
+    //@requires bound > 0;
+    //@ensures 0 <= \result && \result < bound;
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive, got " + bound);
+        }
+        // multiply 32 random bits by the bound and keep the high word, rejecting the few values that would bias it
+        long product = (nextLong() >>> 32) * bound;
+        int low = (int) product;
+        if (Integer.compareUnsigned(low, bound) < 0) {
+            int threshold = Integer.remainderUnsigned(-bound, bound);
+            while (Integer.compareUnsigned(low, threshold) < 0) {
+                product = (nextLong() >>> 32) * bound;
+                low = (int) product;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * Returns a random number from 0 up to 1.
+     * @return a random double from 0 inclusive to 1 exclusive
+     */
+    //@ensures 0 <= \result && \result < 1;
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns true or false, each half of the time.
+     * @return a random boolean
+     */
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+}
@@ -0,0 +1,84 @@
+package go.ai.mcts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import go.model.game.Board;
+import go.model.interfaces.Color;
+import go.util.Rng;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ArenaMCTSTest {
+    Board board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+    }
+
+    @Test
+    public void testArenaGrows() {
+        NodeArena arena = new NodeArena(2);
+        assertEquals(1, arena.size());
+        assertFalse(arena.isExpanded(arena.getRoot()));
+
+        int first = arena.addChildren(arena.getRoot(), new int[] {3, 5, 8}, 3);
+        assertEquals(1, first);
+        assertEquals(4, arena.size());
+        assertTrue(arena.isExpanded(arena.getRoot()));
+        assertEquals(8, arena.getMove(first + 2));
+        assertEquals(arena.getRoot(), arena.getParent(first + 2));
+        assertFalse(arena.isExpanded(first));
+
+        arena.addChildren(first, new int[0], 0);
+        assertTrue(arena.isExpanded(first));
+        assertEquals(0, arena.getNumOfChildren(first));
+
+        arena.clear();
+        assertEquals(1, arena.size());
+        assertEquals(NodeArena.NONE, arena.getParent(arena.getRoot()));
+    }
+
+    @Test
+    public void testSearch() {
+        ArenaMCTS mcts = new ArenaMCTS(200, new Rng(1));
+        Board copy = board.deepCopy();
+        NodeArena arena = mcts.search(board);
+
+        assertEquals(copy, board);
+        assertEquals(mcts.getNumOfPlayouts(), arena.getVisits(arena.getRoot()));
+        assertEquals(board.getStoneCount(Color.EMPTY), arena.getNumOfChildren(arena.getRoot()));
+        assertEquals(arena.size(), mcts.getNumOfNodes());
+        checkTree(arena, arena.getRoot());
+    }
+
+    @Test
+    public void testSearchMove() {
+        // the white stone on 17 has one liberty left and black is to move
+        board.setField(10, Color.BLACK);
+        board.setField(40, Color.WHITE);
+
+        assertEquals(18, new ArenaMCTS(100).searchMove(board).getField());
+    }
+
+    /**
+     * Checks that the children of every node have different moves and point back to it,
+     * and that a node was visited at least as often as its children together.
+     */
+    private void checkTree(NodeArena arena, int node) {
+        Set<Integer> moves = new HashSet<>();
+        int visits = 0;
+        int first = arena.getFirstChild(node);
+        for (int child = first; child < first + arena.getNumOfChildren(node); child++) {
+            assertTrue(moves.add(arena.getMove(child)));
+            assertEquals(node, arena.getParent(child));
+            visits += arena.getVisits(child);
+            checkTree(arena, child);
+        }
+        assertTrue(arena.getVisits(node) >= visits);
+    }
+}
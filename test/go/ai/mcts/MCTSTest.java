@@ -0,0 +1,484 @@
+package go.ai.mcts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import go.ai.playout.PlayoutEngine;
+import go.model.game.Board;
+import go.model.game.Move;
+import go.model.interfaces.Color;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MCTSTest {
+    Board board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+    }
+
+    @Test
+    public void testRootParallelMerge() {
+        MCTS mcts = new MCTS(3, 100);
+        Node root = mcts.searchRootParallel(board);
+
+        assertEquals(board.getStoneCount(Color.EMPTY), root.children.size());
+        int visits = 0;
+        for (Node child : root.children) {
+            assertTrue(board.isEmpty(child.move));
+            visits += child.visitCount;
+        }
+        assertEquals(root.visitCount, visits);
+        assertEquals(mcts.getNumOfPlayouts(), visits);
+    }
+
+    @Test
+    public void testSearchMove() {
+        // the white stone on 17 has one liberty left and black is to move
+        board.setField(10, Color.BLACK);
+        board.setField(40, Color.WHITE);
+
+        Move move = new MCTS(2, 100).searchMove(board);
+        assertEquals(18, move.getField());
+        assertEquals(Color.BLACK, move.getColor());
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new MCTS(0));
+        assertThrows(IllegalArgumentException.class, () -> new MCTS(1, 0));
+    }
+
+    @Test
+    public void testTreeParallel() {
+        MCTS mcts = new MCTS(4, 200, Parallelism.TREE);
+        Node root = mcts.searchTreeParallel(board);
+
+        assertEquals(mcts.getNumOfPlayouts(), root.visitCount);
+        checkTree(root);
+        assertEquals(18, new MCTS(4, 100, Parallelism.TREE).searchMove(capturePosition()).getField());
+    }
+
+    @Test
+    public void testLeafParallel() {
+        MCTS mcts = new MCTS(2, 200, Parallelism.LEAF, 8);
+        Node root = mcts.searchLeafParallel(board);
+
+        assertEquals(mcts.getNumOfPlayouts(), root.visitCount);
+        assertEquals(0, root.visitCount % 8);
+        checkTree(root);
+        assertEquals(18, new MCTS(2, 100, Parallelism.LEAF).searchMove(capturePosition()).getField());
+        assertThrows(IllegalArgumentException.class, () -> new MCTS(2, 100, Parallelism.LEAF, 0));
+    }
+
+    @Test
+    public void testTreeReuse() {
+        MCTS mcts = new MCTS(1, 200, Parallelism.TREE);
+        Node root = mcts.searchTreeParallel(board);
+        assertEquals(0, mcts.getNumOfReusedVisits());
+
+        // our move and the reply of the opponent that was searched most
+        Node played = mcts.getWinnerNode(root);
+        Node reply = Collections.max(played.children, Comparator.comparing(c -> c.visitCount));
+        int visits = reply.visitCount;
+        assertTrue(visits > 0);
+
+        Node next = mcts.searchTreeParallel(reply.board.deepCopy());
+        assertSame(reply, next);
+        assertNull(next.parent);
+        assertEquals(visits, mcts.getNumOfReusedVisits());
+        assertEquals(visits + mcts.getNumOfPlayouts(), next.visitCount);
+        checkTree(next);
+
+        // the position after only our move has the other player to move, so it starts a new tree
+        Node other = mcts.searchTreeParallel(played.board.deepCopy());
+        assertEquals(0, mcts.getNumOfReusedVisits());
+        assertEquals(mcts.getNumOfPlayouts(), other.visitCount);
+    }
+
+    @Test
+    public void testLazyExpansion() {
+        MCTS mcts = new MCTS(1, 100, Parallelism.TREE);
+        Node root = mcts.searchTreeParallel(board);
+
+        // every node is a visited position, untried moves have no node yet
+        assertEquals(root.visitCount, mcts.getNumOfPlayouts());
+        checkCreated(root);
+        assertTrue(mcts.getNumOfNodes() <= root.visitCount + 1);
+    }
+
+    @Test
+    public void testProgressiveWidening() {
+        MCTS mcts = new MCTS(1, 100, Parallelism.TREE, 1, true);
+        Node root = mcts.searchTreeParallel(board);
+
+        checkTree(root);
+        checkWidth(root);
+        assertEquals(18, new MCTS(1, 100, Parallelism.TREE, 1, true).searchMove(capturePosition()).getField());
+    }
+
+    @Test
+    public void testSearchLimits() {
+        MCTS mcts = new MCTS(SearchConfig.builder().threads(2).parallelism(Parallelism.TREE)
+                .timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(500).build());
+        Node root = mcts.searchTreeParallel(board);
+        assertEquals(500, mcts.getNumOfPlayouts());
+        assertEquals(500, root.visitCount);
+        assertEquals(StopReason.PLAYOUT_LIMIT, mcts.getStopReason());
+
+        // the last batch is cut to the playouts that are left
+        mcts = new MCTS(SearchConfig.builder().threads(2).parallelism(Parallelism.LEAF).batchSize(8)
+                .maxPlayouts(100).build());
+        assertEquals(100, mcts.searchLeafParallel(board).visitCount);
+        assertEquals(StopReason.PLAYOUT_LIMIT, mcts.getStopReason());
+
+        mcts = new MCTS(SearchConfig.builder().parallelism(Parallelism.TREE).maxNodes(50).build());
+        mcts.searchTreeParallel(board);
+        assertEquals(50, mcts.getNumOfNodes());
+        assertEquals(StopReason.NODE_LIMIT, mcts.getStopReason());
+
+        mcts = new MCTS(SearchConfig.builder().maxHeapBytes(1).build());
+        Move move = mcts.searchMove(board);
+        assertEquals(0, mcts.getNumOfPlayouts());
+        assertEquals(StopReason.HEAP_LIMIT, mcts.getStopReason());
+        assertTrue(board.isEmpty(move.getField()));
+
+        mcts = new MCTS(SearchConfig.builder().timeLimit(50).build());
+        mcts.searchMove(board);
+        assertEquals(StopReason.TIME_LIMIT, mcts.getStopReason());
+        assertTrue(mcts.getElapsed() >= 50);
+    }
+
+    @Test
+    public void testSeededSearch() {
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE)
+                .timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(2000).seed(42).build();
+        Node first = new MCTS(config).searchTreeParallel(board);
+        Node second = new MCTS(config).searchTreeParallel(board);
+
+        assertEquals(first.children.size(), second.children.size());
+        for (int i = 0; i < first.children.size(); i++) {
+            assertEquals(first.children.get(i).move, second.children.get(i).move);
+            assertEquals(first.children.get(i).visitCount, second.children.get(i).visitCount);
+            assertEquals(first.children.get(i).score, second.children.get(i).score);
+        }
+    }
+
+    @Test
+    public void testInvalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> SearchConfig.builder().timeLimit(SearchConfig.NO_LIMIT)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> SearchConfig.builder().maxPlayouts(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchConfig.builder().batchSize(0).build());
+        assertEquals(4, SearchConfig.builder().threads(4).build().getBatchSize());
+    }
+
+    @Test
+    public void testPondering() throws InterruptedException {
+        MCTS mcts = new MCTS(SearchConfig.builder().parallelism(Parallelism.TREE).maxPlayouts(500)
+                .pondering(true).build());
+        Node root = mcts.searchTreeParallel(board);
+        Node played = mcts.getWinnerNode(root);
+        int visits = played.visitCount;
+
+        mcts.startPondering(new Move(played.move, board.getTurn(), board.getDim()));
+        assertTrue(mcts.isPondering());
+        Thread.sleep(200);
+        assertTrue(mcts.isPondering());
+
+        // the search of the reply stops pondering and continues the pondered subtree
+        Node reply = played.children.get(0);
+        Node next = mcts.searchTreeParallel(reply.board.deepCopy());
+        assertFalse(mcts.isPondering());
+        assertTrue(mcts.getNumOfPonderPlayouts() > 0);
+        assertEquals(visits + mcts.getNumOfPonderPlayouts(), played.visitCount);
+        assertSame(reply, next);
+        assertEquals(reply.visitCount - mcts.getNumOfPlayouts(), mcts.getNumOfReusedVisits());
+        checkTree(next);
+
+        mcts.startPondering(new Move(mcts.getWinnerNode(next).move, reply.board.getTurn(), board.getDim()));
+        mcts.stop();
+        assertFalse(mcts.isPondering());
+
+        // nothing to ponder after a move that ends the game
+        Move capture = mcts.searchMove(capturePosition());
+        mcts.startPondering(capture);
+        assertFalse(mcts.isPondering());
+    }
+
+    @Test
+    public void testRave() {
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(SearchConfig.NO_LIMIT)
+                .maxPlayouts(1000).raveEquivalence(MCTS.RAVE_EQUIVALENCE).build();
+        Node root = new MCTS(config).searchTreeParallel(board);
+
+        checkTree(root);
+        // the move of a child is played in every simulation through it, and in others as well
+        int raveVisits = 0;
+        for (Node child : root.children) {
+            assertTrue(child.raveVisits >= child.visitCount);
+            assertTrue(child.raveScore <= child.raveVisits * MCTS.WIN_SCORE);
+            raveVisits += child.raveVisits;
+        }
+        assertTrue(raveVisits > root.visitCount);
+
+        assertEquals(18, new MCTS(config).searchMove(capturePosition()).getField());
+        Node leafRoot = new MCTS(config.toBuilder().parallelism(Parallelism.LEAF).threads(2).batchSize(4).build())
+                .searchLeafParallel(board);
+        for (Node child : leafRoot.children) {
+            assertTrue(child.raveVisits >= child.visitCount);
+        }
+        assertThrows(IllegalArgumentException.class, () -> SearchConfig.builder().raveEquivalence(-1).build());
+    }
+
+    @Test
+    public void testTranspositions() {
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(SearchConfig.NO_LIMIT)
+                .maxPlayouts(3000).transpositionCapacity(MCTS.TRANSPOSITION_CAPACITY).seed(7).build();
+        MCTS mcts = new MCTS(config);
+        Node root = mcts.searchTreeParallel(board);
+
+        assertEquals(mcts.getNumOfPlayouts(), root.visitCount);
+        assertTrue(mcts.getNumOfTranspositions() > 0);
+        assertEquals(0, mcts.getNumOfEvictions());
+        Map<Node, List<Node>> parents = checkGraph(root);
+        assertEquals(parents.size(), mcts.getNumOfNodes());
+        assertTrue(parents.values().stream().anyMatch(list -> list.size() > 1));
+
+        // the search continues below the reply with the parents of shared nodes inside the new graph
+        Node reply = Collections.max(mcts.getWinnerNode(root).children, Comparator.comparing(c -> c.visitCount));
+        Node next = mcts.searchTreeParallel(reply.board.deepCopy());
+        assertSame(reply, next);
+        assertNull(next.parent);
+        checkGraph(next);
+
+        mcts = new MCTS(config.toBuilder().transpositionCapacity(100).build());
+        checkGraph(mcts.searchTreeParallel(board));
+        assertTrue(mcts.getNumOfEvictions() > 0);
+        assertEquals(18, new MCTS(config.toBuilder().threads(2).build()).searchMove(capturePosition()).getField());
+        assertThrows(IllegalArgumentException.class, () -> SearchConfig.builder().transpositionCapacity(-1).build());
+    }
+
+    @Test
+    public void testEarlyStop() {
+        // the capture is the only move, it is played without a playout
+        MCTS mcts = new MCTS(SearchConfig.builder().threads(2).build());
+        assertEquals(18, mcts.searchMove(capturePosition()).getField());
+        assertEquals(StopReason.FORCED_MOVE, mcts.getStopReason());
+        assertEquals(0, mcts.getNumOfPlayouts());
+        assertEquals(MCTS.TIME_LIMIT - mcts.getElapsed(), mcts.getSavedTime());
+
+        // the black stone on 0 has one liberty left, every move but 7 loses it
+        Board atari = new Board();
+        atari.setField(0, Color.BLACK);
+        atari.setField(1, Color.WHITE);
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(SearchConfig.NO_LIMIT)
+                .maxPlayouts(20000).seed(3).build();
+        mcts = new MCTS(config);
+        assertEquals(7, mcts.searchMove(atari).getField());
+        assertEquals(StopReason.DECIDED, mcts.getStopReason());
+        assertTrue(mcts.getNumOfPlayouts() < 20000);
+        assertEquals(0, mcts.getSavedTime());
+
+        mcts = new MCTS(config.toBuilder().earlyStop(false).build());
+        assertEquals(7, mcts.searchMove(atari).getField());
+        assertEquals(StopReason.PLAYOUT_LIMIT, mcts.getStopReason());
+        assertEquals(20000, mcts.getNumOfPlayouts());
+    }
+
+    @Test
+    public void testSolver() {
+        // black wins by putting the white stone on 0 in atari at 7, every reply of white is captured
+        Board ladder = new Board();
+        ladder.setField(8, Color.BLACK);
+        ladder.setField(14, Color.BLACK);
+        ladder.setField(0, Color.WHITE);
+        ladder.setField(48, Color.WHITE);
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE).seed(5).build();
+        MCTS mcts = new MCTS(config);
+        Node root = mcts.searchTreeParallel(ladder);
+        assertEquals(StopReason.SOLVED, mcts.getStopReason());
+        assertEquals(Color.BLACK, root.proven);
+        assertEquals(7, mcts.getWinnerNode(root).move);
+        assertTrue(mcts.getSavedTime() > 0);
+        checkProofs(root);
+        assertEquals(7, new MCTS(config.toBuilder().threads(2).parallelism(Parallelism.ROOT).build())
+                .searchMove(ladder).getField());
+
+        // every move but 7 leaves the black stone on 0 to be captured
+        Board atari = new Board();
+        atari.setField(0, Color.BLACK);
+        atari.setField(1, Color.WHITE);
+        root = new MCTS(config.toBuilder().timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(2000).build())
+                .searchTreeParallel(atari);
+        checkProofs(root);
+        assertTrue(root.children.stream().anyMatch(child -> child.proven == Color.WHITE));
+        assertTrue(root.children.stream().allMatch(child -> child.move != 7 || child.proven != Color.WHITE));
+
+        root = new MCTS(config.toBuilder().timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(2000).solver(false).build())
+                .searchTreeParallel(atari);
+        assertTrue(checkGraph(root).keySet().stream().noneMatch(Node::isProven));
+    }
+
+    @Test
+    public void testNodeBudget() {
+        SearchConfig config = SearchConfig.builder().parallelism(Parallelism.TREE).timeLimit(SearchConfig.NO_LIMIT)
+                .maxPlayouts(5000).nodeBudget(200).earlyStop(false).seed(9).build();
+        MCTS mcts = new MCTS(config);
+        Node root = mcts.searchTreeParallel(board);
+
+        // the collapsed nodes keep their visits, so the root still has them all
+        assertEquals(mcts.getNumOfPlayouts(), root.visitCount);
+        assertTrue(mcts.getNumOfNodes() <= 200);
+        assertTrue(mcts.getNumOfPruneEvents() > 0);
+        assertTrue(mcts.getNumOfPrunedNodes() > 0);
+        assertEquals(mcts.getNumOfNodes() * Node.estimateBytes(board.getNumOfFields()), mcts.getNumOfBytes());
+        checkTree(root);
+        checkCreated(root);
+
+        // every thread may add one node while another one prunes
+        mcts = new MCTS(config.toBuilder().threads(2).transpositionCapacity(MCTS.TRANSPOSITION_CAPACITY).build());
+        checkGraph(mcts.searchTreeParallel(board));
+        assertTrue(mcts.getNumOfNodes() <= 201);
+        assertEquals(0, new MCTS(config.toBuilder().nodeBudget(SearchConfig.NO_LIMIT).build()).getNumOfPruneEvents());
+        assertThrows(IllegalArgumentException.class, () -> SearchConfig.builder().nodeBudget(0).build());
+    }
+
+    @Test
+    public void testPlayoutPatterns() {
+        // the black stone on 0 has one liberty left, the pattern playouts find 7 without the solver as well
+        Board atari = new Board();
+        atari.setField(0, Color.BLACK);
+        atari.setField(1, Color.WHITE);
+        SearchConfig config = SearchConfig.builder().threads(2).timeLimit(SearchConfig.NO_LIMIT).maxPlayouts(5000)
+                .playoutPatterns(true).solver(false).earlyStop(false).seed(4).build();
+        MCTS mcts = new MCTS(config);
+        assertEquals(7, mcts.searchMove(atari).getField());
+        assertEquals(5000, mcts.getNumOfPlayouts());
+
+        mcts = new MCTS(config.toBuilder().threads(1).parallelism(Parallelism.LEAF).build());
+        checkTree(mcts.searchLeafParallel(board));
+        assertTrue(config.toString().contains("playoutPatterns=true"));
+    }
+
+    /**
+     * Checks that every child was created by selection and visited, and that it was one of the moves of its parent.
+     */
+    private void checkCreated(Node node) {
+        Set<Integer> moves = new HashSet<>();
+        for (int move : node.untried) {
+            moves.add(move);
+        }
+        assertTrue(node.children.size() <= node.untried.length);
+        for (Node child : node.children) {
+            assertTrue(child.visitCount > 0);
+            assertTrue(moves.contains(child.move));
+            checkCreated(child);
+        }
+    }
+
+    /**
+     * Checks that no node has more children than progressive widening allows for its visits.
+     */
+    private void checkWidth(Node node) {
+        assertTrue(node.children.size() <= 1 + (int) (MCTS.WIDENING_FACTOR
+                * Math.pow(node.visitCount, MCTS.WIDENING_EXPONENT)));
+        for (Node child : node.children) {
+            checkWidth(child);
+        }
+    }
+
+    /**
+     * Checks that no virtual loss is left, that every node was expanded once
+     * and that a node was visited at least as often as its children together.
+     */
+    private void checkTree(Node node) {
+        assertEquals(0, node.virtualLoss);
+        Set<Integer> moves = new HashSet<>();
+        int visits = 0;
+        for (Node child : node.children) {
+            assertTrue(moves.add(child.move));
+            assertSame(node, child.parent);
+            visits += child.visitCount;
+            checkTree(child);
+        }
+        assertTrue(node.visitCount >= visits);
+    }
+
+    /**
+     * Checks that no virtual loss is left in a graph with shared nodes, that the children of a node are
+     * different positions with one stone more and that the parent of every node below the root is one of its parents.
+     * @return the parents of every node of the graph
+     */
+    private Map<Node, List<Node>> checkGraph(Node root) {
+        Map<Node, List<Node>> parents = new IdentityHashMap<>();
+        parents.put(root, new ArrayList<>());
+        Deque<Node> stack = new ArrayDeque<>(List.of(root));
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            assertEquals(0, node.virtualLoss);
+            Set<Board> boards = new HashSet<>();
+            for (Node child : node.children) {
+                assertTrue(boards.add(child.board));
+                assertEquals(node.board.getStoneCount(Color.EMPTY) - 1, child.board.getStoneCount(Color.EMPTY));
+                if (!parents.containsKey(child)) {
+                    parents.put(child, new ArrayList<>());
+                    stack.push(child);
+                }
+                parents.get(child).add(node);
+            }
+        }
+        for (Map.Entry<Node, List<Node>> entry : parents.entrySet()) {
+            assertTrue(entry.getKey() == root || entry.getValue().contains(entry.getKey().parent));
+        }
+        return parents;
+    }
+
+    /**
+     * Checks that every proven node follows from its position or its children:
+     * a finished position is won by its winner, a position won by the player to move has a child they win,
+     * and any other proven position has all its moves as proven children with the best of them as outcome.
+     */
+    private void checkProofs(Node node) {
+        for (Node child : node.children) {
+            checkProofs(child);
+        }
+        if (!node.isProven()) {
+            return;
+        }
+        Color turn = node.board.getTurn();
+        if (node.board.isGameOver() || node.board.getStoneCount(Color.EMPTY) == 0) {
+            Color winner = PlayoutEngine.findWinner(node.board);
+            assertEquals(winner == null ? Color.EMPTY : winner, node.proven);
+        } else if (node.proven == turn) {
+            assertTrue(node.children.stream().anyMatch(child -> child.proven == turn));
+        } else {
+            assertEquals(node.untried.length, node.children.size());
+            assertTrue(node.children.stream().allMatch(child -> child.isProven() && child.proven != turn));
+            boolean draw = node.children.stream().anyMatch(child -> child.proven == Color.EMPTY);
+            assertEquals(draw ? Color.EMPTY : turn.other(), node.proven);
+        }
+    }
+
+    private Board capturePosition() {
+        Board capture = new Board();
+        capture.setField(10, Color.BLACK);
+        capture.setField(40, Color.WHITE);
+        return capture;
+    }
+}
@@ -0,0 +1,118 @@
+package go.ai.playout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import go.model.game.Board;
+import go.model.interfaces.Color;
+import go.util.Rng;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PlayoutEngineTest {
+    PlayoutEngine engine;
+    Board board;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new PlayoutEngine(new Rng(1));
+        board = new Board();
+    }
+
+    @Test
+    public void testStartIsNotChanged() {
+        Board copy = board.deepCopy();
+        for (int i = 0; i < 100; i++) {
+            engine.playout(board);
+        }
+        assertEquals(copy, board);
+        assertEquals(100, engine.getNumOfPlayouts());
+        assertTrue(engine.getPlayoutsPerSecond() > 0);
+    }
+
+    @Test
+    public void testCapturesFirst() {
+        // the white stone on 17 has one liberty left and black is to move
+        board.setField(10, Color.BLACK);
+        board.setField(40, Color.WHITE);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Color.BLACK, engine.playout(board));
+        }
+    }
+
+    @Test
+    public void testFinishedPosition() {
+        board.setField(10, Color.BLACK);
+        board.setField(40, Color.WHITE);
+        board.setField(18, Color.BLACK);
+        assertEquals(Color.BLACK, engine.playout(board));
+    }
+
+    @Test
+    public void testPatterns() {
+        PlayoutEngine patterns = new PlayoutEngine(new Rng(1), PatternTable.DEFAULT);
+        for (int dim : new int[]{7, 9, 5}) {
+            Board start = new Board(dim);
+            for (int i = 0; i < 50; i++) {
+                patterns.playout(start);
+                // the codes kept up to date move by move equal those computed from the final board
+                Board end = new Board(dim);
+                for (int field = 0; field < end.getNumOfFields(); field++) {
+                    end.setField(field, patterns.getLastColor(field));
+                }
+                for (int field = 0; field < end.getNumOfFields(); field++) {
+                    assertEquals(PatternTable.code(end, field), patterns.getCode(field));
+                }
+            }
+            assertEquals(new Board(dim), start);
+        }
+
+        // captures still come first
+        board.setField(10, Color.BLACK);
+        board.setField(40, Color.WHITE);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Color.BLACK, patterns.playout(board));
+        }
+    }
+
+    @Test
+    public void testPatternWeights() {
+        PatternTable table = PatternTable.DEFAULT;
+        // the black stone on 24 of the starting cross has black north west and white north and west of it
+        int center = PatternTable.code(board, 24);
+        assertEquals(PatternTable.BLACK, center & 3);
+        assertEquals(PatternTable.WHITE, (center >>> 2 * 1) & 3);
+        assertEquals(PatternTable.WHITE, (center >>> 2 * 3) & 3);
+        assertEquals(PatternTable.EMPTY, center >>> 2 * 4);
+        // the corner has the edge north west, north, north east, west and south west of it
+        assertEquals(PatternTable.EDGE << 2 * 0 | PatternTable.EDGE << 2 * 1 | PatternTable.EDGE << 2 * 2
+                | PatternTable.EDGE << 2 * 3 | PatternTable.EDGE << 2 * 5, PatternTable.code(new Board(), 0));
+
+        // contact with the opponent weighs more than open space, which weighs more than the empty edge
+        int open = PatternTable.code(new Board(), 8);
+        int contact = PatternTable.code(board, 10);
+        int edge = PatternTable.code(new Board(), 3);
+        assertTrue(table.weight(contact, Color.BLACK) > table.weight(open, Color.BLACK));
+        assertTrue(table.weight(open, Color.BLACK) > table.weight(edge, Color.BLACK));
+        // filling an own eye is avoided, for white the colors are swapped
+        int eye = PatternTable.BLACK << 2 * 1 | PatternTable.BLACK << 2 * 3
+                | PatternTable.BLACK << 2 * 4 | PatternTable.BLACK << 2 * 6;
+        int whiteEye = PatternTable.WHITE << 2 * 1 | PatternTable.WHITE << 2 * 3
+                | PatternTable.WHITE << 2 * 4 | PatternTable.WHITE << 2 * 6;
+        assertEquals(1, table.weight(eye, Color.BLACK));
+        assertEquals(1, table.weight(whiteEye, Color.WHITE));
+        assertEquals(table.weight(eye, Color.WHITE), table.weight(whiteEye, Color.BLACK));
+        assertTrue(table.weight(eye, Color.BLACK) < table.weight(open, Color.BLACK));
+    }
+
+    @Test
+    public void testBoardSizes() {
+        for (int dim : new int[]{9, 19, 7}) {
+            Board start = new Board(dim);
+            for (int i = 0; i < 20; i++) {
+                engine.playout(start);
+            }
+            assertEquals(new Board(dim), start);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package go.model.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import go.model.interfaces.Color;
@@ -186,4 +188,195 @@ public class BoardTest {
 
         assertEquals(0, board.numOfLiberties(board.getGroup(0)));
     }
+
+    @Test
+    public void testGetGroups() {
+        board.setField(0, Color.BLACK);
+        board.setField(1, Color.BLACK);
+        board.setField(6, Color.BLACK);
+        board.setField(13, Color.BLACK);
+
+        // two new groups plus the two single starting stones
+        assertEquals(4, board.getGroups(Color.BLACK).size());
+        assertTrue(board.getGroups(Color.BLACK).contains(board.getGroup(0)));
+        assertTrue(board.getGroups(Color.BLACK).contains(board.getGroup(13)));
+        assertEquals(2, board.getGroup(6).size());
+
+        // stones on the last column must not wrap around to the next row
+        assertFalse(board.getNeighbors(6).contains(7));
+        assertFalse(board.getNeighbors(7).contains(6));
+    }
+
+    @Test
+    public void testTrackedGroups() {
+        board.setField(0, Color.BLACK);
+        board.setField(2, Color.BLACK);
+        board.setField(8, Color.WHITE);
+        board.setField(1, Color.BLACK);
+
+        assertEquals(board.floodGroup(0), board.getGroup(2));
+        assertEquals(3, board.numOfGroupLiberties(0));
+        assertFalse(board.isInAtari(1));
+
+        board.setField(7, Color.WHITE);
+        board.setField(9, Color.WHITE);
+
+        assertTrue(board.isInAtari(0));
+        assertEquals(board.getLiberties(board.getGroup(0)), board.getGroupLiberties(2));
+        assertFalse(board.isGameOver());
+
+        board.setField(3, Color.WHITE);
+
+        assertEquals(0, board.numOfGroupLiberties(1));
+        assertTrue(board.isGameOver());
+        assertEquals(board.floodIsGameOver(), board.isGameOver());
+
+        // replacing a stone rebuilds the groups
+        board.setField(3, Color.EMPTY);
+
+        assertEquals(1, board.numOfGroupLiberties(1));
+        assertFalse(board.isGameOver());
+        assertEquals(board.floodGroup(8), board.getGroup(9));
+    }
+
+    @Test
+    public void testHash() {
+        Board other = new Board();
+        assertEquals(board.hash(), other.hash());
+        assertEquals(board, other);
+
+        board.setField(0, Color.BLACK);
+        board.setField(10, Color.WHITE);
+        assertNotEquals(board.hash(), other.hash());
+        assertNotEquals(board, other);
+
+        // same position in a different order
+        other.setField(10, Color.WHITE);
+        other.setField(0, Color.BLACK);
+        assertEquals(board.hash(), other.hash());
+        assertEquals(board, other);
+        assertEquals(board.hashCode(), other.hashCode());
+
+        Board copy = board.deepCopy();
+        assertEquals(board.hash(), copy.hash());
+        copy.setField(20, Color.BLACK);
+        assertNotEquals(board.hash(), copy.hash());
+        copy.setField(20, Color.EMPTY);
+        assertEquals(board.hash(), copy.hash());
+    }
+
+    @Test
+    public void testNeighborTable() {
+        for (int i = 0; i < Board.DIM * Board.DIM; i++) {
+            assertEquals(board.getNeighbors(i).size(), board.numOfNeighbors(i));
+            for (int n = 0; n < board.numOfNeighbors(i); n++) {
+                assertTrue(board.getNeighbors(i).contains(board.getNeighbor(i, n)));
+            }
+        }
+        assertEquals(2, board.numOfNeighbors(0));
+        assertEquals(3, board.numOfNeighbors(3));
+        assertEquals(4, board.numOfNeighbors(10));
+    }
+
+    @Test
+    public void testBoardSizes() {
+        assertEquals(Board.DIM, board.getDim());
+        assertThrows(IllegalArgumentException.class, () -> new Board(Board.MIN_DIM - 1));
+        assertThrows(IllegalArgumentException.class, () -> new Board(Board.MAX_DIM + 1));
+
+        for (int dim : new int[]{9, 13, 19}) {
+            Board big = new Board(dim);
+            assertEquals(dim, big.getDim());
+            assertEquals(dim * dim, big.getNumOfFields());
+            assertEquals(2, big.numOfNeighbors(dim * dim - 1));
+            assertEquals(3, big.numOfNeighbors(dim));
+            assertEquals(4, big.numOfNeighbors(dim + 1));
+
+            // a group crossing the word boundary of the bitboards
+            int last = dim * dim - 1;
+            big.setField(last, Color.BLACK);
+            big.setField(last - 1, Color.BLACK);
+            big.setField(last - dim, Color.WHITE);
+            big.setField(0, Color.BLACK);
+            big.setField(last - dim - 1, Color.WHITE);
+            assertEquals(2, big.getGroup(last - 1).size());
+            assertTrue(big.isInAtari(last));
+            assertEquals(last - 2, big.findAtariLiberty(Color.BLACK));
+            assertEquals(big.getLiberties(big.getGroup(last)), big.getGroupLiberties(last - 1));
+
+            big.setField(1, Color.BLACK);
+            big.setField(last - 2, Color.WHITE);
+            assertTrue(big.isGameOver());
+            assertEquals(big, big.deepCopy());
+        }
+    }
+
+    @Test
+    public void testStoneCounts() {
+        assertEquals(2, board.getStoneCount(Color.BLACK));
+        assertEquals(2, board.getStoneCount(Color.WHITE));
+        assertEquals(45, board.getStoneCount(Color.EMPTY));
+        assertEquals(Color.BLACK, board.getTurn());
+
+        board.setField(0, Color.BLACK);
+        assertEquals(3, board.getStoneCount(Color.BLACK));
+        assertEquals(Color.WHITE, board.getTurn());
+
+        // replacing a stone moves it to the other count
+        board.setField(0, Color.WHITE);
+        assertEquals(2, board.getStoneCount(Color.BLACK));
+        assertEquals(3, board.getStoneCount(Color.WHITE));
+        assertEquals(Color.WHITE, board.getTurn());
+
+        Board copy = board.deepCopy();
+        copy.setField(0, Color.EMPTY);
+        assertEquals(Color.BLACK, copy.getTurn());
+        assertEquals(45, copy.getStoneCount(Color.EMPTY));
+        assertEquals(44, board.getStoneCount(Color.EMPTY));
+    }
+
+    @Test
+    public void testPlayAndUnplay() {
+        Board start = board.deepCopy();
+        board.setField(0, Color.BLACK);
+        board.setField(8, Color.WHITE);
+        Board before = board.deepCopy();
+        assertEquals(0, board.getNumOfPlays());
+
+        board.play(1, Color.BLACK);
+        board.play(7, Color.WHITE);
+        board.play(2, Color.BLACK);
+        board.play(9, Color.WHITE);
+        board.play(3, Color.BLACK);
+        board.play(10, Color.WHITE);
+        assertEquals(6, board.getNumOfPlays());
+        assertTrue(board.isInAtari(0));
+
+        // capture the black group
+        board.play(20, Color.BLACK);
+        board.play(4, Color.WHITE);
+        assertEquals(0, board.numOfGroupLiberties(2));
+        assertTrue(board.isGameOver());
+
+        for (int i = 0; i < 8; i++) {
+            board.unplay();
+        }
+        assertEquals(before, board);
+        assertEquals(before.hash(), board.hash());
+        assertFalse(board.isGameOver());
+        assertEquals(1, board.getGroup(0).size());
+        assertEquals(2, board.numOfGroupLiberties(0));
+        assertEquals(3, board.getStoneCount(Color.BLACK));
+        assertEquals(Color.BLACK, board.getTurn());
+        assertThrows(IllegalStateException.class, () -> board.unplay());
+        assertThrows(IllegalArgumentException.class, () -> board.play(0, Color.WHITE));
+
+        // setField starts a new history
+        board.play(1, Color.BLACK);
+        board.setField(1, Color.EMPTY);
+        board.setField(0, Color.EMPTY);
+        board.setField(8, Color.EMPTY);
+        assertEquals(0, board.getNumOfPlays());
+        assertEquals(start, board);
+    }
 }
@@ -114,4 +114,58 @@ public class GameTest {
 
         assertThrows(IllegalMoveException.class, () -> game.doMove(invalidMove3));
     }
+
+    @Test
+    public void testBoardSize() {
+        Game big = new Game(p1, p2, 9);
+        assertEquals(9, big.getBoard().getDim());
+        assertTrue(big.getValidMoves().size() > Board.DIM * Board.DIM);
+
+        Move edge = new Move(7, 8, Color.BLACK, 9);
+        assertEquals(79, edge.getField());
+        assertTrue(big.isValidMove(edge));
+        big.doMove(edge);
+        assertEquals(Color.BLACK, big.getBoard().getColor(79));
+        assertEquals(9, big.deepCopy().getBoard().getDim());
+    }
+
+    @Test
+    public void testGetWinner() {
+        assertNull(game.getWinner());
+        game.doMove(new Move(10, Color.BLACK));
+        game.doMove(new Move(40, Color.WHITE));
+        assertNull(game.getWinner());
+        assertFalse(game.isGameOver());
+
+        // black takes the last liberty of the white stone on 17
+        game.doMove(new Move(18, Color.BLACK));
+        assertTrue(game.isGameOver());
+        assertEquals(Color.BLACK, game.getWinner());
+        assertEquals(Color.BLACK, game.deepCopy().getWinner());
+
+        // changing the board directly is noticed
+        game.getBoard().setField(18, Color.EMPTY);
+        assertFalse(game.isGameOver());
+        assertNull(game.getWinner());
+    }
+
+    @Test
+    public void testUndoMove() {
+        Board start = game.getBoard().deepCopy();
+        game.doMove(new Move(10, Color.BLACK));
+        game.doMove(new Move(40, Color.WHITE));
+        game.doMove(new Move(18, Color.BLACK));
+        assertEquals(Color.BLACK, game.getWinner());
+
+        game.undoMove();
+        assertFalse(game.isGameOver());
+        assertNull(game.getWinner());
+        assertEquals(p1, game.getTurn());
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals(start, game.getBoard());
+        assertEquals(start.hash(), game.hash());
+        assertThrows(IllegalStateException.class, () -> game.undoMove());
+    }
 }
@@ -0,0 +1,61 @@
+package go.model.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import go.model.interfaces.Color;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class PointSetTest {
+
+    @Test
+    public void testSetOperations() {
+        PointSet a = new PointSet(49, 0, 3, 48);
+        PointSet b = new PointSet(49, 3, 10);
+
+        assertEquals(3, a.size());
+        assertTrue(a.contains(48));
+        assertFalse(a.contains(1));
+        assertFalse(a.contains(-1));
+        assertEquals(Set.of(0, 3, 10, 48), a.union(b).toSet());
+        assertEquals(Set.of(3), a.intersection(b).toSet());
+        assertEquals(Set.of(0, 48), a.minus(b).toSet());
+        assertTrue(a.minus(a).isEmpty());
+        assertEquals(new PointSet(49, 3), a.intersection(b));
+        assertEquals(new PointSet(49, 3).hashCode(), a.intersection(b).hashCode());
+        assertEquals("[0, 3, 48]", a.toString());
+    }
+
+    @Test
+    public void testIteration() {
+        // fields in every word of a 19x19 board
+        PointSet set = new PointSet(361, 1, 63, 64, 200, 360);
+        int[] expected = {1, 63, 64, 200, 360};
+        int count = 0;
+        for (int field = set.first(); field != -1; field = set.next(field)) {
+            assertEquals(expected[count], field);
+            count++;
+        }
+        assertEquals(5, count);
+        assertEquals(-1, new PointSet(49).first());
+    }
+
+    @Test
+    public void testBoardQueries() {
+        Board board = new Board();
+        board.setField(0, Color.BLACK);
+        board.setField(8, Color.WHITE);
+        board.setField(1, Color.BLACK);
+
+        assertEquals(board.getGroup(0), board.getGroupPoints(1).toSet());
+        assertEquals(new PointSet(49, 2, 7), board.getGroupLibertyPoints(0));
+        assertEquals(board.getFields(Color.BLACK), board.getFieldPoints(Color.BLACK).toSet());
+        assertEquals(board.getFields(Color.EMPTY).size(), board.getFieldPoints(Color.EMPTY).size());
+        assertEquals(board.getGroups(Color.BLACK).size(), board.getGroupPoints(Color.BLACK).size());
+        assertEquals(2, board.numOfLiberties(board.getGroupPoints(0)));
+        assertEquals(new PointSet(49, 2, 7, 8), board.getNeighborPoints(board.getGroupPoints(0)));
+        assertEquals(new PointSet(49, 2), board.getLibertyPoints(1));
+    }
+}
@@ -0,0 +1,59 @@
+package go.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class FenwickTreeTest {
+
+    @Test
+    public void testSums() {
+        FenwickTree tree = new FenwickTree(7);
+        int[] weights = {3, 0, 5, 1, 0, 2, 4};
+        for (int i = 0; i < weights.length; i++) {
+            tree.set(i, weights[i]);
+        }
+        assertEquals(15, tree.total());
+        int sum = 0;
+        for (int i = 0; i <= weights.length; i++) {
+            assertEquals(sum, tree.prefix(i));
+            if (i < weights.length) {
+                sum += weights[i];
+            }
+        }
+        tree.set(2, 1);
+        assertEquals(11, tree.total());
+        assertEquals(1, tree.get(2));
+        assertEquals(4, tree.prefix(3));
+
+        FenwickTree built = new FenwickTree(7);
+        built.setAll(weights);
+        for (int i = 0; i <= weights.length; i++) {
+            assertEquals(new int[]{0, 3, 3, 8, 9, 9, 11, 15}[i], built.prefix(i));
+        }
+        built.clear();
+        assertEquals(0, built.total());
+    }
+
+    @Test
+    public void testFind() {
+        FenwickTree tree = new FenwickTree(6);
+        tree.setAll(new int[]{2, 0, 3, 0, 0, 1});
+        // the values 0 and 1 fall into item 0, 2 to 4 into item 2 and 5 into item 5, items without weight never
+        int[] expected = {0, 0, 2, 2, 2, 5};
+        for (int value = 0; value < tree.total(); value++) {
+            assertEquals(expected[value], tree.find(value));
+        }
+
+        Rng rng = new Rng(1);
+        int[] counts = new int[6];
+        for (int i = 0; i < 60000; i++) {
+            counts[tree.find(rng.nextInt(tree.total()))]++;
+        }
+        assertEquals(0, counts[1] + counts[3] + counts[4]);
+        assertTrue(counts[0] > 19000 && counts[0] < 21000);
+        assertTrue(counts[2] > 29000 && counts[2] < 31000);
+        assertTrue(counts[5] > 9000 && counts[5] < 11000);
+    }
+}
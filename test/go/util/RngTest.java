@@ -0,0 +1,42 @@
+package go.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class RngTest {
+
+    @Test
+    public void testSeeded() {
+        Rng a = new Rng(42);
+        Rng b = new Rng(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+        // split generators repeat as well, and differ from their parent
+        Rng splitA = a.split();
+        Rng splitB = b.split();
+        assertEquals(splitA.nextLong(), splitB.nextLong());
+        assertNotEquals(a.nextLong(), splitA.nextLong());
+        assertNotEquals(new Rng().nextLong(), new Rng().nextLong());
+    }
+
+    @Test
+    public void testRanges() {
+        Rng rng = new Rng(1);
+        int[] counts = new int[7];
+        for (int i = 0; i < 70000; i++) {
+            counts[rng.nextInt(7)]++;
+            double d = rng.nextDouble();
+            assertTrue(d >= 0 && d < 1);
+        }
+        for (int count : counts) {
+            assertTrue(count > 9000 && count < 11000);
+        }
+        assertEquals(0, rng.nextInt(1));
+        assertThrows(IllegalArgumentException.class, () -> rng.nextInt(0));
+    }
+}